@@ -1,18 +1,29 @@
 package org.akj.test.tracker.application.component.api;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.micrometer.common.util.StringUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.akj.test.tracker.application.component.dto.ComponentAndDependencyDto;
+import org.akj.test.tracker.application.component.dto.ComponentBatchUploadRequest;
+import org.akj.test.tracker.application.component.dto.ComponentBatchUploadResponse;
+import org.akj.test.tracker.application.component.dto.ComponentDependencySnapshotDto;
 import org.akj.test.tracker.application.component.dto.ComponentDto;
+import org.akj.test.tracker.application.component.dto.ComponentUploadResult;
 import org.akj.test.tracker.application.component.service.ComponentService;
+import org.akj.test.tracker.application.component.service.ComponentStreamIngestService;
 import org.akj.test.tracker.infrastructure.config.spring.ApiResponse;
 import org.akj.test.tracker.infrastructure.config.spring.BaseApi;
+import org.akj.test.tracker.infrastructure.executor.IngestExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.concurrent.CompletableFuture;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/v1/components")
@@ -20,9 +31,14 @@ import java.util.concurrent.CompletableFuture;
 public class ComponentApi extends BaseApi {
 
     private final ComponentService componentService;
+    private final ComponentStreamIngestService componentStreamIngestService;
+    private final IngestExecutor ingestExecutor;
 
-    public ComponentApi(ComponentService componentService) {
+    public ComponentApi(ComponentService componentService, ComponentStreamIngestService componentStreamIngestService,
+                        IngestExecutor ingestExecutor) {
         this.componentService = componentService;
+        this.componentStreamIngestService = componentStreamIngestService;
+        this.ingestExecutor = ingestExecutor;
     }
 
     // extension for git repo scan
@@ -78,9 +94,8 @@ public class ComponentApi extends BaseApi {
                 componentAndDependencies.getComponent(),
                 componentAndDependencies.getDependencies().size());
 
-        // Asynchronous processing
-        // Todo: to create thread pool for async processing
-        CompletableFuture.runAsync(() -> {
+        // Asynchronous processing on the bounded ingest executor, a full queue is rejected with 429 + Retry-After
+        ingestExecutor.execute(() -> {
             try {
                 componentService.saveComponentAndDependency(componentAndDependencies);
                 log.info("Async processing completed for component: {}", componentAndDependencies.getComponent());
@@ -91,4 +106,64 @@ public class ComponentApi extends BaseApi {
 
         return created(null);
     }
+
+    @PutMapping("/batch")
+    @Operation(
+            summary = "Upload a batch of components & their dependencies",
+            description =
+                    "Upload many components with their dependencies in one request. Existing components are resolved "
+                            + "with a single lookup and all changes are written in one bulk operation, the response "
+                            + "reports whether each component was inserted, updated or unchanged.",
+            tags = "Scanned Components")
+    public ResponseEntity<ApiResponse<ComponentBatchUploadResponse>> uploadBatch(
+            @RequestBody @Valid ComponentBatchUploadRequest request) {
+        log.info("Uploading batch of {} components", request.getComponents().size());
+        try {
+            return ok(componentService.saveComponentsAndDependencies(request.getComponents()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid batch upload: {}", e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PutMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Upload a component & its dependencies as NDJSON",
+            description =
+                    "Streaming variant of the upload for very large dependency sets. The first line is the component, "
+                            + "every following line is one dependency. Dependencies are persisted in chunks while the "
+                            + "request is read, the request body is never held in memory as a whole.",
+            tags = "Scanned Components")
+    public ResponseEntity<ApiResponse<ComponentUploadResult>> uploadStream(InputStream body) throws IOException {
+        try {
+            ComponentUploadResult result = componentStreamIngestService.ingest(body);
+            log.info("Streaming upload completed for component: {}@{}, outcome: {}",
+                    result.getComponentId(), result.getBranch(), result.getOutcome());
+            return ok(result);
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            log.warn("Invalid streaming upload: {}", e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/dependencies")
+    @Operation(
+            summary = "Get the dependencies of a component at a point in time",
+            description =
+                    "Rebuilds the dependency set of a component as it was at the given instant (ISO-8601, defaults to "
+                            + "now) from its dependency history.",
+            tags = "Scanned Components")
+    public ResponseEntity<ApiResponse<ComponentDependencySnapshotDto>> getDependenciesAt(
+            @PathVariable String id,
+            @RequestParam(required = false) Instant at) {
+        Instant pointInTime = at == null ? Instant.now() : at;
+        try {
+            return componentService.getDependenciesAt(id, pointInTime)
+                    .map(this::ok)
+                    .orElseGet(() -> error(HttpStatus.NOT_FOUND,
+                            "No dependency history for component " + id + " at " + pointInTime));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package org.akj.test.tracker.application.component.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComponentBatchUploadRequest {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @NotEmpty
+    @Size(max = MAX_BATCH_SIZE, message = "A batch cannot contain more than " + MAX_BATCH_SIZE + " components")
+    @Valid
+    @Builder.Default
+    private List<ComponentAndDependencyDto> components = new ArrayList<>();
+}
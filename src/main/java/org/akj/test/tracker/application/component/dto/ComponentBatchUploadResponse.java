@@ -0,0 +1,20 @@
+package org.akj.test.tracker.application.component.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComponentBatchUploadResponse {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    // one entry per uploaded component, in request order
+    private List<ComponentUploadResult> results;
+}
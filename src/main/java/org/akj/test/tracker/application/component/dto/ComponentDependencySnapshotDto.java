@@ -0,0 +1,23 @@
+package org.akj.test.tracker.application.component.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComponentDependencySnapshotDto {
+    private String id;
+    // requested point in time
+    private Instant at;
+    // checksum and time of the change that was in effect at that point
+    private String checksum;
+    private Instant recordedAt;
+    private List<DependencyDto> dependencies;
+}
@@ -0,0 +1,17 @@
+package org.akj.test.tracker.application.component.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComponentUploadResult {
+    private String componentId;
+    private String branch;
+    private String checksum;
+    private UploadOutcome outcome;
+}
@@ -0,0 +1,10 @@
+package org.akj.test.tracker.application.component.dto;
+
+public enum UploadOutcome {
+    // no component with the same componentId + branch existed
+    INSERTED,
+    // component existed and its dependency checksum changed
+    UPDATED,
+    // component existed with the same dependency checksum, nothing written
+    UNCHANGED
+}
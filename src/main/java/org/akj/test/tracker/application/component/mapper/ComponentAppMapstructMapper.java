@@ -24,6 +24,9 @@ public interface ComponentAppMapstructMapper {
     @Mapping(source = "component.name", target = "metadata.name")
     @Mapping(source = "component.sourceCodeUrl", target = "metadata.sourceCodeUrl")
     @Mapping(source = "component.eimId", target = "metadata.eimId")
+    // cold storage encoding, only written by the ColdStorageCompactor
+    @Mapping(target = "packedDependencies", ignore = true)
+    @Mapping(target = "dependencyCount", ignore = true)
     ComponentAndDependency toDomain(ComponentAndDependencyDto componentAndDependencyDto);
 
 
@@ -0,0 +1,51 @@
+package org.akj.test.tracker.application.component.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Remembers the last persisted dependency checksum per componentId + branch, so the components of a batch upload that
+ * re-uploads an unchanged dependency set need no checksum lookup. A hit is only a hint: another replica may have
+ * written a different checksum since, so the write is never skipped, it is made conditional on the stored checksum
+ * instead. The cache is size bounded and entries expire. Hit, miss and eviction counts are exported as
+ * {@code cache.*} meters with {@code cache=componentChecksums}.
+ */
+@Component
+@Slf4j
+public class ComponentChecksumCache {
+    public static final String CACHE_NAME = "componentChecksums";
+
+    private final Cache<String, String> checksums;
+
+    public ComponentChecksumCache(MeterRegistry meterRegistry,
+                                  @Value("${tracker.ingest.checksum-cache.max-size:100000}") long maxSize,
+                                  @Value("${tracker.ingest.checksum-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.checksums = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, checksums, CACHE_NAME);
+        log.info("Component checksum cache initialized, maxSize: {}, expireAfterWrite: {}", maxSize, expireAfterWrite);
+    }
+
+    public boolean isUnchanged(String componentId, String branch, String checksum) {
+        return checksum.equals(checksums.getIfPresent(key(componentId, branch)));
+    }
+
+    // called after every successful write or confirmed no-op, the value then matches what Mongo holds
+    public void put(String componentId, String branch, String checksum) {
+        checksums.put(key(componentId, branch), checksum);
+    }
+
+    private static String key(String componentId, String branch) {
+        return componentId + "@" + branch;
+    }
+}
@@ -1,38 +1,56 @@
 package org.akj.test.tracker.application.component.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.common.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.akj.test.tracker.application.component.dto.ComponentAndDependencyDto;
+import org.akj.test.tracker.application.component.dto.ComponentBatchUploadResponse;
+import org.akj.test.tracker.application.component.dto.ComponentDependencySnapshotDto;
+import org.akj.test.tracker.application.component.dto.ComponentUploadResult;
+import org.akj.test.tracker.application.component.dto.UploadOutcome;
 import org.akj.test.tracker.application.component.mapper.ComponentAppMapstructMapper;
+import org.akj.test.tracker.domain.component.event.ComponentDependenciesChangedEvent;
 import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
 import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
 import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
-import org.akj.test.tracker.infrastructure.utils.XxHashUtils;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.akj.test.tracker.infrastructure.utils.DependencyChecksum;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Slf4j
 public class ComponentService {
-    public static final String GENERATE_CHECKSUM_FAILED = "GENERATE_CHECKSUM_FAILED";
     private final ComponentRepository componentRepository;
+    private final ComponentDomainService componentDomainService;
     private final ComponentAppMapstructMapper componentAppMapstructMapper;
-    private final ObjectMapper objectMapper;
+    private final ComponentUploadMetrics componentUploadMetrics;
+    private final ComponentChecksumCache componentChecksumCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ComponentService(
             ComponentRepository componentRepository,
+            ComponentDomainService componentDomainService,
             ComponentAppMapstructMapper componentAppMapstructMapper,
-            @Qualifier("orderedObjectMapper") ObjectMapper objectMapper) {
+            ComponentUploadMetrics componentUploadMetrics,
+            ComponentChecksumCache componentChecksumCache,
+            ApplicationEventPublisher eventPublisher) {
         this.componentRepository = componentRepository;
+        this.componentDomainService = componentDomainService;
         this.componentAppMapstructMapper = componentAppMapstructMapper;
-        this.objectMapper = objectMapper;
+        this.componentUploadMetrics = componentUploadMetrics;
+        this.componentChecksumCache = componentChecksumCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public ComponentAndDependencyDto saveComponentAndDependency(
@@ -43,34 +61,195 @@ public class ComponentService {
         ComponentAndDependency componentAndDependency =
                 componentAppMapstructMapper.toDomain(componentAndDependencyDto);
 
-        // 2. Find existing component by componentId + branch or name + sourceCodeUrl + branch
+        // 2. Components with a componentId are written with one atomic, checksum guarded upsert
+        if (StringUtils.isNotBlank(componentAndDependency.getComponentId())) {
+            return upsertComponent(componentAndDependency);
+        }
+
+        // 3. Find existing component by name + sourceCodeUrl + branch
         ComponentAndDependency existingComponent = findExistingComponent(componentAndDependency);
 
-        // 3. If exists, compare checksum and decide whether to update
+        // 4. If exists, compare checksum and decide whether to update
         if (Objects.nonNull(existingComponent)) {
             return handleExistingComponent(componentAndDependency, existingComponent);
         }
 
-        // 4. Save new component
+        // 5. Save new component
         Instant now = Instant.now();
         componentAndDependency.setCreatedAt(now);
         componentAndDependency.setChecksum(
                 calculateChecksum(componentAndDependency.getDependencies()));
         componentAndDependency.setLastUpdatedAt(now);
-        componentRepository.save(componentAndDependency);
+        componentDomainService.saveComponent(componentAndDependency, null);
+        publishDependenciesChanged(componentAndDependency);
+        componentUploadMetrics.record(ComponentUploadMetrics.SINGLE, UploadOutcome.INSERTED);
         return componentAppMapstructMapper.toDto(componentAndDependency);
     }
 
-    private ComponentAndDependency findExistingComponent(ComponentAndDependency component) {
-        if (StringUtils.isNotBlank(component.getComponentId())) {
-            return componentRepository.findByComponentIdAndBranch(
-                    component.getComponentId(), component.getBranch());
-        } else {
-            return componentRepository.findByMetadataNameAndSourceCodeUrlAndBranch(
-                    component.getMetadata().getName(),
-                    component.getMetadata().getSourceCodeUrl(),
-                    component.getBranch());
+    private ComponentAndDependencyDto upsertComponent(ComponentAndDependency componentAndDependency) {
+        Instant now = Instant.now();
+        componentAndDependency.setCreatedAt(now);
+        componentAndDependency.setLastUpdatedAt(now);
+        componentAndDependency.setChecksum(calculateChecksum(componentAndDependency.getDependencies()));
+
+        UploadOutcome outcome = UploadOutcome.valueOf(componentDomainService.upsertComponent(componentAndDependency).name());
+        if (outcome != UploadOutcome.UNCHANGED) {
+            publishDependenciesChanged(componentAndDependency);
         }
+        componentChecksumCache.put(componentAndDependency.getComponentId(), componentAndDependency.getBranch(),
+                componentAndDependency.getChecksum());
+        log.info("Component {}@{} upserted, outcome: {}",
+                componentAndDependency.getComponentId(), componentAndDependency.getBranch(), outcome);
+        componentUploadMetrics.record(ComponentUploadMetrics.SINGLE, outcome);
+        return componentAppMapstructMapper.toDto(componentAndDependency);
+    }
+
+    public ComponentBatchUploadResponse saveComponentsAndDependencies(List<ComponentAndDependencyDto> componentAndDependencyDtos) {
+        log.info("Saving batch of {} components and dependencies", componentAndDependencyDtos.size());
+
+        // 1. Convert to domain objects, one componentId + branch may only appear once per batch
+        List<ComponentAndDependency> components = new ArrayList<>(componentAndDependencyDtos.size());
+        Set<String> keys = new HashSet<>();
+        for (ComponentAndDependencyDto dto : componentAndDependencyDtos) {
+            if (StringUtils.isBlank(dto.getComponentId())) {
+                throw new IllegalArgumentException("componentId is required for batch upload, component: " + dto.getComponent());
+            }
+            if (!keys.add(componentKey(dto.getComponentId(), dto.getBranch()))) {
+                throw new IllegalArgumentException(
+                        "Duplicate component in batch: " + dto.getComponentId() + "@" + dto.getBranch());
+            }
+            components.add(componentAppMapstructMapper.toDomain(dto));
+        }
+
+        // 2. Checksums, components the cache expects to be unchanged need no lookup, they are still written with a
+        // checksum guarded upsert because another replica may have written a different checksum since
+        List<String> checksums = new ArrayList<>(components.size());
+        boolean[] expectedUnchanged = new boolean[components.size()];
+        List<ComponentAndDependency> uncachedComponents = new ArrayList<>();
+        for (int i = 0; i < components.size(); i++) {
+            ComponentAndDependency component = components.get(i);
+            String checksum = calculateChecksum(component.getDependencies());
+            checksums.add(checksum);
+            expectedUnchanged[i] = componentChecksumCache.isUnchanged(component.getComponentId(), component.getBranch(), checksum);
+            if (!expectedUnchanged[i]) {
+                uncachedComponents.add(component);
+            }
+        }
+
+        // 3. Resolve the remaining existing components with a single $in lookup
+        Map<String, ComponentAndDependency> existingComponents = new HashMap<>();
+        if (!uncachedComponents.isEmpty()) {
+            componentDomainService.findChecksumsByComponentIdAndBranchIn(
+                            uncachedComponents.stream().map(ComponentAndDependency::getComponentId).toList(),
+                            uncachedComponents.stream().map(ComponentAndDependency::getBranch).distinct().toList())
+                    .forEach(existing -> existingComponents.put(componentKey(existing.getComponentId(), existing.getBranch()), existing));
+        }
+
+        // 4. Compare checksums and sort the batch into inserts, updates and no-ops
+        Instant now = Instant.now();
+        List<ComponentAndDependency> newComponents = new ArrayList<>();
+        List<ComponentAndDependency> changedComponents = new ArrayList<>();
+        List<ComponentAndDependency> expectedUnchangedComponents = new ArrayList<>();
+        List<ComponentUploadResult> results = new ArrayList<>(components.size());
+        for (int i = 0; i < components.size(); i++) {
+            ComponentAndDependency component = components.get(i);
+            String checksum = checksums.get(i);
+            ComponentAndDependency existing =
+                    existingComponents.get(componentKey(component.getComponentId(), component.getBranch()));
+
+            UploadOutcome outcome;
+            if (expectedUnchanged[i]) {
+                component.setCreatedAt(now);
+                component.setLastUpdatedAt(now);
+                component.setChecksum(checksum);
+                expectedUnchangedComponents.add(component);
+                outcome = UploadOutcome.UNCHANGED;
+            } else if (existing == null) {
+                component.setCreatedAt(now);
+                component.setLastUpdatedAt(now);
+                component.setChecksum(checksum);
+                newComponents.add(component);
+                outcome = UploadOutcome.INSERTED;
+            } else if (checksum.equals(existing.getChecksum())) {
+                outcome = UploadOutcome.UNCHANGED;
+            } else {
+                updateComponent(existing, checksum, component);
+                changedComponents.add(existing);
+                outcome = UploadOutcome.UPDATED;
+            }
+
+            results.add(ComponentUploadResult.builder()
+                    .componentId(component.getComponentId())
+                    .branch(component.getBranch())
+                    .checksum(checksum)
+                    .outcome(outcome)
+                    .build());
+        }
+
+        // 5. Write everything through one unordered bulk operation, new components a concurrent upload inserted
+        // first are retried one by one and report the outcome of that retry
+        ComponentDomainService.BulkSaveResult bulkSaveResult = componentDomainService.bulkSaveComponents(
+                newComponents, changedComponents, expectedUnchangedComponents);
+        for (int i = 0; i < bulkSaveResult.expectedUnchanged().size(); i++) {
+            ComponentAndDependency component = expectedUnchangedComponents.get(i);
+            UploadOutcome outcome = UploadOutcome.valueOf(bulkSaveResult.expectedUnchanged().get(i).name());
+            if (outcome == UploadOutcome.INSERTED) {
+                newComponents.add(component);
+            } else if (outcome == UploadOutcome.UPDATED) {
+                changedComponents.add(component);
+            }
+            results.get(components.indexOf(component)).setOutcome(outcome);
+        }
+        List<ComponentAndDependency> notInserted = bulkSaveResult.notInserted();
+        for (ComponentAndDependency component : notInserted) {
+            newComponents.removeIf(newComponent -> newComponent == component);
+            UploadOutcome outcome = UploadOutcome.valueOf(componentDomainService.upsertComponent(component).name());
+            if (outcome == UploadOutcome.UPDATED) {
+                changedComponents.add(component);
+            }
+            results.get(components.indexOf(component)).setOutcome(outcome);
+        }
+        newComponents.forEach(this::publishDependenciesChanged);
+        changedComponents.forEach(this::publishDependenciesChanged);
+        results.forEach(result -> {
+            componentChecksumCache.put(result.getComponentId(), result.getBranch(), result.getChecksum());
+            componentUploadMetrics.record(ComponentUploadMetrics.BATCH, result.getOutcome());
+        });
+        log.info("Batch saved, inserted: {}, updated: {}, unchanged: {}, retried: {}", newComponents.size(),
+                changedComponents.size(), results.size() - newComponents.size() - changedComponents.size(),
+                notInserted.size());
+
+        return ComponentBatchUploadResponse.builder()
+                .inserted(newComponents.size())
+                .updated(changedComponents.size())
+                .unchanged(results.size() - newComponents.size() - changedComponents.size())
+                .results(results)
+                .build();
+    }
+
+    public Optional<ComponentDependencySnapshotDto> getDependenciesAt(String id, Instant at) {
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid component id: " + id);
+        }
+        return componentDomainService.getDependenciesAt(id, at)
+                .map(snapshot -> ComponentDependencySnapshotDto.builder()
+                        .id(id)
+                        .at(at)
+                        .checksum(snapshot.checksum())
+                        .recordedAt(snapshot.recordedAt())
+                        .dependencies(componentAppMapstructMapper.toDtoList(snapshot.dependencies()))
+                        .build());
+    }
+
+    private static String componentKey(String componentId, String branch) {
+        return componentId + "@" + branch;
+    }
+
+    private ComponentAndDependency findExistingComponent(ComponentAndDependency component) {
+        return componentRepository.findByMetadataNameAndSourceCodeUrlAndBranch(
+                component.getMetadata().getName(),
+                component.getMetadata().getSourceCodeUrl(),
+                component.getBranch());
     }
 
     private ComponentAndDependencyDto handleExistingComponent(
@@ -84,12 +263,15 @@ public class ComponentService {
                     "No changes detected, skipping update for component: {}@{}",
                     newComponent.getComponentId(),
                     newComponent.getBranch());
+            componentUploadMetrics.record(ComponentUploadMetrics.SINGLE, UploadOutcome.UNCHANGED);
             return componentAppMapstructMapper.toDto(existingComponent);
         }
 
         // Update existing component with new data
         updateComponent(existingComponent, newChecksum, newComponent);
-        componentRepository.save(existingComponent);
+        componentDomainService.saveComponent(existingComponent, existingChecksum);
+        publishDependenciesChanged(existingComponent);
+        componentUploadMetrics.record(ComponentUploadMetrics.SINGLE, UploadOutcome.UPDATED);
         return componentAppMapstructMapper.toDto(existingComponent);
     }
 
@@ -100,18 +282,14 @@ public class ComponentService {
         existingComponent.setChecksum(checksum);
     }
 
+    private void publishDependenciesChanged(ComponentAndDependency component) {
+        eventPublisher.publishEvent(new ComponentDependenciesChangedEvent(component.getId(), component.getComponentId(),
+                component.getBranch(), component.getChecksum(), component.getLastUpdatedAt()));
+    }
+
+    // order-insensitive, see DependencyChecksum
     private String calculateChecksum(List<Dependency> dependencies) {
-        if (dependencies == null || dependencies.isEmpty()) {
-            return "";
-        }
-        try {
-            String content = null;
-            content = objectMapper.writeValueAsString(dependencies);
-            return XxHashUtils.hash(content);
-        } catch (JsonProcessingException e) {
-            log.warn("Failed to generate checksum for dependencies: {}", dependencies, e);
-            return GENERATE_CHECKSUM_FAILED;
-        }
+        return DependencyChecksum.of(dependencies);
     }
 
 
@@ -0,0 +1,189 @@
+package org.akj.test.tracker.application.component.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.common.util.StringUtils;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.application.component.dto.ComponentAndDependencyDto;
+import org.akj.test.tracker.application.component.dto.ComponentUploadResult;
+import org.akj.test.tracker.application.component.dto.DependencyDto;
+import org.akj.test.tracker.application.component.dto.UploadOutcome;
+import org.akj.test.tracker.application.component.mapper.ComponentAppMapstructMapper;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.event.ComponentDependenciesChangedEvent;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.infrastructure.utils.DependencyChecksum;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ingests a component from an NDJSON stream: the first line is the component (same shape as
+ * {@link ComponentAndDependencyDto}), every following line is one {@link DependencyDto}. Dependencies are parsed one
+ * at a time, hashed on the fly and staged in Mongo chunk by chunk, so the request is never held in memory as a whole.
+ * Each upload stages under its own id and the component only changes when the upload commits.
+ */
+@Service
+@Slf4j
+public class ComponentStreamIngestService {
+    private final ComponentDomainService componentDomainService;
+    private final ComponentAppMapstructMapper componentAppMapstructMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ComponentUploadMetrics componentUploadMetrics;
+    private final ComponentChecksumCache componentChecksumCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ComponentStreamIngestService(
+            ComponentDomainService componentDomainService,
+            ComponentAppMapstructMapper componentAppMapstructMapper,
+            ObjectMapper objectMapper,
+            Validator validator,
+            ComponentUploadMetrics componentUploadMetrics,
+            ComponentChecksumCache componentChecksumCache,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${tracker.ingest.stream.chunk-size:500}") int chunkSize) {
+        this.componentDomainService = componentDomainService;
+        this.componentAppMapstructMapper = componentAppMapstructMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.componentUploadMetrics = componentUploadMetrics;
+        this.componentChecksumCache = componentChecksumCache;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public ComponentUploadResult ingest(InputStream inputStream) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("NDJSON upload must start with the component line");
+            }
+
+            // 1. Component line
+            ComponentAndDependencyDto header = parser.readValueAs(ComponentAndDependencyDto.class);
+            validate(header);
+            if (StringUtils.isBlank(header.getComponentId())) {
+                throw new IllegalArgumentException(
+                        "packageInfo cannot be null, which will be used to get EIM information.");
+            }
+            ComponentAndDependency component = componentAppMapstructMapper.toDomain(header);
+            log.info("Streaming upload for component: {}@{}", component.getComponentId(), component.getBranch());
+
+            // 2. Resolve the component, a new one is only inserted when the upload commits
+            Instant now = Instant.now();
+            ComponentAndDependency existing = componentDomainService.findChecksumByComponentIdAndBranch(
+                    component.getComponentId(), component.getBranch());
+            if (existing == null) {
+                component.setCreatedAt(now);
+            } else {
+                component.setId(existing.getId());
+            }
+
+            // 3. Dependency lines, hashed and staged chunk by chunk under an id of this upload
+            String uploadId = new ObjectId().toHexString();
+            try {
+                String checksum = stageDependencies(uploadId, parser, component.getDependencies());
+                component.setChecksum(checksum);
+                // stamped when the upload commits, not when it started, incremental scans select by this timestamp
+                component.setLastUpdatedAt(Instant.now());
+                UploadOutcome outcome = commit(uploadId, component, existing);
+                componentUploadMetrics.record(ComponentUploadMetrics.STREAM, outcome);
+                componentChecksumCache.put(component.getComponentId(), component.getBranch(), checksum);
+                if (outcome != UploadOutcome.UNCHANGED) {
+                    eventPublisher.publishEvent(new ComponentDependenciesChangedEvent(component.getId(),
+                            component.getComponentId(), component.getBranch(), checksum, component.getLastUpdatedAt()));
+                }
+                return ComponentUploadResult.builder()
+                        .componentId(component.getComponentId())
+                        .branch(component.getBranch())
+                        .checksum(checksum)
+                        .outcome(outcome)
+                        .build();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Streaming upload failed for component: {}@{}, rolling back staged dependencies",
+                        component.getComponentId(), component.getBranch());
+                componentDomainService.discardStagedDependencies(uploadId);
+                throw e;
+            }
+        }
+    }
+
+    private String stageDependencies(String uploadId, JsonParser parser, List<Dependency> inlineDependencies)
+            throws IOException {
+        Staging staging = new Staging(uploadId);
+        for (Dependency dependency : inlineDependencies) {
+            staging.add(dependency);
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            DependencyDto dependencyDto = parser.readValueAs(DependencyDto.class);
+            validate(dependencyDto);
+            staging.add(componentAppMapstructMapper.toDomain(dependencyDto));
+        }
+        if (parser.currentToken() != null) {
+            throw new IllegalArgumentException("Every NDJSON line must be a JSON object, found: " + parser.currentToken());
+        }
+        // an upload without dependencies still stages one empty chunk, the commit replaces the dependencies with it
+        if (!staging.chunk.isEmpty() || staging.sequence == 0) {
+            staging.flush();
+        }
+
+        log.info("Staged {} dependencies for upload: {}", staging.checksum.getCount(), uploadId);
+        return staging.checksum.getValue();
+    }
+
+    private UploadOutcome commit(String uploadId, ComponentAndDependency component, ComponentAndDependency existing) {
+        if (existing != null && component.getChecksum().equals(existing.getChecksum())) {
+            log.info("No changes detected, discarding staged dependencies for component id: {}", existing.getId());
+            componentDomainService.discardStagedDependencies(uploadId);
+            return UploadOutcome.UNCHANGED;
+        }
+        return UploadOutcome.valueOf(componentDomainService.commitStagedDependencies(uploadId, component,
+                existing == null ? null : existing.getChecksum()).name());
+    }
+
+    private final class Staging {
+        private final String uploadId;
+        // order-insensitive, so the checksum can be built as dependencies arrive
+        private final DependencyChecksum checksum = new DependencyChecksum();
+        private final List<Dependency> chunk = new ArrayList<>(chunkSize);
+        private int sequence;
+
+        private Staging(String uploadId) {
+            this.uploadId = uploadId;
+        }
+
+        private void add(Dependency dependency) {
+            checksum.add(dependency);
+            chunk.add(dependency);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            componentDomainService.stageDependencies(uploadId, sequence++, new ArrayList<>(chunk));
+            chunk.clear();
+        }
+    }
+
+    private <T> void validate(T value) {
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
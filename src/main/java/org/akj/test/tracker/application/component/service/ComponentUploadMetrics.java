@@ -0,0 +1,32 @@
+package org.akj.test.tracker.application.component.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.akj.test.tracker.application.component.dto.UploadOutcome;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts component uploads by outcome (inserted, updated, unchanged) and ingest mode (single, batch, stream),
+ * exported as {@code tracker.component.upload}.
+ */
+@Component
+public class ComponentUploadMetrics {
+    public static final String SINGLE = "single";
+    public static final String BATCH = "batch";
+    public static final String STREAM = "stream";
+
+    private final MeterRegistry meterRegistry;
+
+    public ComponentUploadMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String mode, UploadOutcome outcome) {
+        Counter.builder("tracker.component.upload")
+                .description("Component uploads by outcome")
+                .tag("mode", mode)
+                .tag("outcome", outcome.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -5,14 +5,22 @@ import org.akj.test.tracker.application.component.dto.*;
 import org.akj.test.tracker.application.component.mapper.ComponentAppMapstructMapper;
 import org.akj.test.tracker.domain.component.model.BuildManager;
 import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
 import org.akj.test.tracker.domain.common.model.ProgramLanguage;
 import org.akj.test.tracker.domain.common.model.RuntimeType;
 import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
+import org.akj.test.tracker.infrastructure.config.ExecutorConfig;
+import org.akj.test.tracker.infrastructure.storage.component.cold.FacetDependencies;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
 import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.*;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
@@ -21,11 +29,15 @@ import org.springframework.util.StringUtils;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,13 +47,19 @@ public class DependencySearchService {
     private final ComponentRepository componentRepository;
     private final ComponentAppMapstructMapper componentAppMapstructMapper;
     private final MongoTemplate mongoTemplate;
+    private final ArtefactDictionary artefactDictionary;
+    private final Executor facetExecutor;
 
     @Autowired
     public DependencySearchService(ComponentRepository componentRepository,
-                                   ComponentAppMapstructMapper componentAppMapstructMapper, MongoTemplate mongoTemplate) {
+                                   ComponentAppMapstructMapper componentAppMapstructMapper, MongoTemplate mongoTemplate,
+                                   ArtefactDictionary artefactDictionary,
+                                   @Qualifier(ExecutorConfig.FACET_EXECUTOR) Executor facetExecutor) {
         this.componentRepository = componentRepository;
         this.componentAppMapstructMapper = componentAppMapstructMapper;
         this.mongoTemplate = mongoTemplate;
+        this.artefactDictionary = artefactDictionary;
+        this.facetExecutor = facetExecutor;
     }
 
     public DependencySearchResponse search(DependencySearchRequest request) {
@@ -186,11 +204,15 @@ public class DependencySearchService {
                             .count().as("count")
             );
 
-            // Execute aggregations
-            List<Document> languageResults = mongoTemplate.aggregate(languageAgg, COLLECTION_NAME, Document.class).getMappedResults();
-            List<Document> buildManagerResults = mongoTemplate.aggregate(buildManagerAgg, COLLECTION_NAME, Document.class).getMappedResults();
-            List<Document> runtimeResults = mongoTemplate.aggregate(runtimeAgg, COLLECTION_NAME, Document.class).getMappedResults();
-            List<Document> compilerResults = mongoTemplate.aggregate(compilerAgg, COLLECTION_NAME, Document.class).getMappedResults();
+            // Execute aggregations, they are independent and run concurrently on the facet executor
+            CompletableFuture<List<Document>> languageFuture = aggregateAsync(languageAgg);
+            CompletableFuture<List<Document>> buildManagerFuture = aggregateAsync(buildManagerAgg);
+            CompletableFuture<List<Document>> runtimeFuture = aggregateAsync(runtimeAgg);
+            CompletableFuture<List<Document>> compilerFuture = aggregateAsync(compilerAgg);
+            List<Document> languageResults = languageFuture.join();
+            List<Document> buildManagerResults = buildManagerFuture.join();
+            List<Document> runtimeResults = runtimeFuture.join();
+            List<Document> compilerResults = compilerFuture.join();
 
             log.debug("Language results: {}", languageResults);
             log.debug("Build manager results: {}", buildManagerResults);
@@ -233,14 +255,20 @@ public class DependencySearchService {
             Aggregation depCountAgg = Aggregation.newAggregation(
                     Aggregation.project()
                             .and("language").as("language")
-                            .and("dependencies").size().as("dependencyCount"),
+                            // cold components keep their count next to the packed dependencies
+                            .and(ConditionalOperators.ifNull("dependencyCount")
+                                    .thenValueOf(ArrayOperators.arrayOf(
+                                            ConditionalOperators.ifNull("dependencies").then(List.of())).length()))
+                            .as("dependencyCount"),
                     Aggregation.group("language")
                             .avg("dependencyCount").as("avgCount")
             );
 
             // Execute aggregations
-            List<Document> typeResults = mongoTemplate.aggregate(typeAgg, COLLECTION_NAME, Document.class).getMappedResults();
-            List<Document> depCountResults = mongoTemplate.aggregate(depCountAgg, COLLECTION_NAME, Document.class).getMappedResults();
+            CompletableFuture<List<Document>> typeFuture = aggregateAsync(typeAgg);
+            CompletableFuture<List<Document>> depCountFuture = aggregateAsync(depCountAgg);
+            List<Document> typeResults = typeFuture.join();
+            List<Document> depCountResults = depCountFuture.join();
 
             log.debug("Type results: {}", typeResults);
             log.debug("Dependency count results: {}", depCountResults);
@@ -295,33 +323,43 @@ public class DependencySearchService {
                             .push("buildManager").as("buildManagers")
             );
 
+            // Dependencies reference artefacts by dictionary id, translate the artefact filters to ids first
+            List<Integer> springBootArtefactIds = artefactDictionary.findIds(
+                    Pattern.compile("^" + Pattern.quote(FacetDependencies.SPRING_BOOT_PREFIX)));
+            List<Integer> frontendArtefactIds = artefactDictionary.findIds(FacetDependencies.FRONTEND_FRAMEWORKS);
+
             // Aggregate Spring Boot versions
             Aggregation springBootAgg = Aggregation.newAggregation(
+                    matchDependencies(springBootArtefactIds),
+                    hotAndColdDependencies(),
                     Aggregation.unwind("dependencies"),
-                    Aggregation.match(Criteria.where("dependencies.artefact").regex("^org\\.springframework\\.boot")),
+                    Aggregation.match(Criteria.where("dependencies.artefactId").in(springBootArtefactIds)),
                     Aggregation.group("dependencies.version")
                             .count().as("count")
                             .addToSet("componentId").as("componentIds")
                             .push("dependencies.type").as("types")
-                            .push("dependencies.artefact").as("artefacts")
+                            .push("dependencies.artefactId").as("artefacts")
             );
 
             // Aggregate frontend frameworks
             Aggregation frontendAgg = Aggregation.newAggregation(
+                    matchDependencies(frontendArtefactIds),
+                    hotAndColdDependencies(),
                     Aggregation.unwind("dependencies"),
-                    Aggregation.match(Criteria.where("dependencies.artefact").in(
-                            "react", "react-dom", "angular", "vue"
-                    )),
-                    Aggregation.group("dependencies.artefact", "dependencies.version")
+                    Aggregation.match(Criteria.where("dependencies.artefactId").in(frontendArtefactIds)),
+                    Aggregation.group("dependencies.artefactId", "dependencies.version")
                             .count().as("count")
                             .addToSet("componentId").as("componentIds")
                             .push("dependencies.type").as("types")
             );
 
             // Execute aggregations
-            List<Document> runtimeResults = mongoTemplate.aggregate(runtimeVersionAgg, COLLECTION_NAME, Document.class).getMappedResults();
-            List<Document> springBootResults = mongoTemplate.aggregate(springBootAgg, COLLECTION_NAME, Document.class).getMappedResults();
-            List<Document> frontendResults = mongoTemplate.aggregate(frontendAgg, COLLECTION_NAME, Document.class).getMappedResults();
+            CompletableFuture<List<Document>> runtimeFuture = aggregateAsync(runtimeVersionAgg);
+            CompletableFuture<List<Document>> springBootFuture = aggregateAsync(springBootAgg);
+            CompletableFuture<List<Document>> frontendFuture = aggregateAsync(frontendAgg);
+            List<Document> runtimeResults = runtimeFuture.join();
+            List<Document> springBootResults = springBootFuture.join();
+            List<Document> frontendResults = frontendFuture.join();
 
             // Build response
             VersionDistributionFacet facet = new VersionDistributionFacet();
@@ -470,7 +508,10 @@ public class DependencySearchService {
                         Object artefact = artefacts.get(i);
                         if (type != null && artefact != null) {
                             String typeStr = type.toString();
-                            String artefactStr = artefact.toString();
+                            String artefactStr = artefactName(artefact);
+                            if (artefactStr == null) {
+                                continue;
+                            }
                             String key = artefactStr.contains("spring-boot-starter") ? "spring-boot-starter" :
                                     artefactStr.contains("spring-boot-actuator") ? "spring-boot-actuator" :
                                             artefactStr.contains("spring-boot-test") ? "spring-boot-test" : typeStr;
@@ -492,7 +533,7 @@ public class DependencySearchService {
                 }
 
                 Document idDoc = (Document) id;
-                String framework = idDoc.getString("dependencies.artefact");
+                String framework = artefactName(idDoc.get("artefactId"));
                 if (framework == null) {
                     continue;
                 }
@@ -509,8 +550,8 @@ public class DependencySearchService {
                 }
 
                 Document idDoc = (Document) id;
-                String framework = idDoc.getString("dependencies.artefact");
-                String version = idDoc.getString("dependencies.version");
+                String framework = artefactName(idDoc.get("artefactId"));
+                String version = idDoc.getString("version");
 
                 if (framework == null || version == null) {
                     continue;
@@ -577,4 +618,29 @@ public class DependencySearchService {
             return new VersionDistributionFacet();
         }
     }
+
+    private CompletableFuture<List<Document>> aggregateAsync(Aggregation aggregation) {
+        return CompletableFuture.supplyAsync(
+                () -> mongoTemplate.aggregate(aggregation, COLLECTION_NAME, Document.class).getMappedResults(),
+                facetExecutor);
+    }
+
+    // group keys hold dictionary ids, facets report artefact names
+    private String artefactName(Object artefactId) {
+        return artefactId instanceof Number number ? artefactDictionary.artefactOf(number.intValue()) : null;
+    }
+
+    // cold components keep the dependencies the facets report on unpacked, see FacetDependencies
+    private static AggregationOperation matchDependencies(List<Integer> artefactIds) {
+        return Aggregation.match(new Criteria().orOperator(
+                Criteria.where("dependencies.artefactId").in(artefactIds),
+                Criteria.where(ComponentDomainService.FACET_DEPENDENCIES + ".artefactId").in(artefactIds)));
+    }
+
+    private static AggregationOperation hotAndColdDependencies() {
+        return Aggregation.project("componentId")
+                .and(ArrayOperators.ConcatArrays.arrayOf(ConditionalOperators.ifNull("dependencies").then(List.of()))
+                        .concat(ConditionalOperators.ifNull(ComponentDomainService.FACET_DEPENDENCIES).then(List.of())))
+                .as("dependencies");
+    }
 }
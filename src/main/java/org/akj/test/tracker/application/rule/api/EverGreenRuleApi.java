@@ -7,7 +7,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.akj.test.tracker.application.rule.dto.EverGreenRuleDto;
 import org.akj.test.tracker.application.rule.dto.EverGreenRuleSearchRequest;
 import org.akj.test.tracker.application.rule.dto.EverGreenRuleSearchResponse;
+import org.akj.test.tracker.application.rule.dto.RuleScanProgressDto;
+import org.akj.test.tracker.application.rule.dto.RuleSimulationResponse;
 import org.akj.test.tracker.application.rule.service.EverGreenRuleService;
+import org.akj.test.tracker.application.rule.service.RuleImpactScanService;
+import org.akj.test.tracker.application.rule.service.RuleSimulationService;
 import org.akj.test.tracker.infrastructure.config.spring.BaseApi;
 import org.akj.test.tracker.infrastructure.config.spring.ApiResponse;
 import org.springframework.http.HttpStatus;
@@ -24,9 +28,14 @@ import java.util.List;
 public class EverGreenRuleApi extends BaseApi {
 
     private final EverGreenRuleService everGreenRuleService;
+    private final RuleImpactScanService ruleImpactScanService;
+    private final RuleSimulationService ruleSimulationService;
 
-    public EverGreenRuleApi(EverGreenRuleService everGreenRuleService) {
+    public EverGreenRuleApi(EverGreenRuleService everGreenRuleService, RuleImpactScanService ruleImpactScanService,
+                            RuleSimulationService ruleSimulationService) {
         this.everGreenRuleService = everGreenRuleService;
+        this.ruleImpactScanService = ruleImpactScanService;
+        this.ruleSimulationService = ruleSimulationService;
     }
 
     @PutMapping
@@ -96,6 +105,42 @@ public class EverGreenRuleApi extends BaseApi {
         }
     }
 
+    @GetMapping("/{id}/scan")
+    @Operation(
+            summary = "Get the progress of a rule's targeted scan",
+            description = "Progress of the scan of the components affected by the last change of the rule.",
+            tags = "Ever-greening Rules")
+    ResponseEntity<ApiResponse<RuleScanProgressDto>> getScanProgress(
+            @Parameter(description = "ID of the rule", required = true)
+            @PathVariable String id) {
+        try {
+            return ruleImpactScanService.getProgress(id)
+                    .map(this::ok)
+                    .orElseGet(() -> error(HttpStatus.NOT_FOUND, "No scan found for rule with id: " + id));
+        } catch (Exception e) {
+            log.error("Error retrieving scan progress: {}", e.getMessage(), e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve scan progress: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/simulate")
+    @Operation(
+            summary = "Simulate a rule",
+            description = "Predict the violations an unsaved rule would raise, evaluated against an in-memory snapshot of all components.",
+            tags = "Ever-greening Rules")
+    ResponseEntity<ApiResponse<RuleSimulationResponse>> simulateRule(@RequestBody @Valid EverGreenRuleDto rule) {
+        log.info("Simulating rule: {}", rule.getName());
+        try {
+            return ok(ruleSimulationService.simulate(rule));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid rule data: {}", e.getMessage());
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            log.error("Error simulating rule: {}", e.getMessage(), e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to simulate rule: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/search")
     @Operation(
             summary = "Search rules",
@@ -0,0 +1,41 @@
+package org.akj.test.tracker.application.rule.api;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.application.rule.dto.ScanRunDto;
+import org.akj.test.tracker.application.rule.service.ScanRunService;
+import org.akj.test.tracker.infrastructure.config.spring.ApiResponse;
+import org.akj.test.tracker.infrastructure.config.spring.BaseApi;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/scans")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Violation Scans", description = "APIs for following scheduled violation scans")
+public class ScanRunApi extends BaseApi {
+    private final ScanRunService scanRunService;
+
+    @GetMapping("/{batchId}")
+    @Operation(summary = "Get the state, throughput and ETA of a violation scan")
+    public ResponseEntity<ApiResponse<ScanRunDto>> getScanRun(
+            @Parameter(description = "Batch id of the scan", required = true)
+            @PathVariable String batchId) {
+        try {
+            return scanRunService.getScanRun(batchId)
+                    .map(this::ok)
+                    .orElseGet(() -> error(HttpStatus.NOT_FOUND, "No scan found with batch id: " + batchId));
+        } catch (Exception e) {
+            log.error("Error retrieving scan {}: {}", batchId, e.getMessage(), e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve scan: " + e.getMessage());
+        }
+    }
+}
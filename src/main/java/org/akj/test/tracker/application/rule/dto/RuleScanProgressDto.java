@@ -0,0 +1,24 @@
+package org.akj.test.tracker.application.rule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleScanProgressDto {
+    private String ruleId;
+    // RUNNING, COMPLETED or FAILED
+    private String status;
+    // components the rule can affect
+    private int total;
+    private int scanned;
+    private int failed;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
@@ -0,0 +1,45 @@
+package org.akj.test.tracker.application.rule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleSimulationResponse {
+    // components of the rule's language the rule was evaluated against
+    private int evaluatedComponents;
+    // components the rule would flag
+    private int violatingComponents;
+    private int runtimeViolations;
+    private int dependencyViolations;
+    // violating components by language and by EIM id, "unknown" for components without EIM id
+    private Map<String, Integer> byLanguage;
+    private Map<String, Integer> byEim;
+    private List<SampleComponent> samples;
+    // the simulation runs against a snapshot of the components, changes after this point are not reflected
+    private Instant snapshotTakenAt;
+    private long tookMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SampleComponent {
+        private String id;
+        private String name;
+        private String eimId;
+        // current runtime version, set when the runtime violates the rule
+        private String runtimeVersion;
+        private int dependencyViolations;
+        // the first violating dependencies as artefact:version
+        private List<String> dependencies;
+    }
+}
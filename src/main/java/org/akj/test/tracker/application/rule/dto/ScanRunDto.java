@@ -0,0 +1,33 @@
+package org.akj.test.tracker.application.rule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanRunDto {
+    private String batchId;
+    private String status;
+    private String shard;
+    private String owner;
+    private boolean fullScan;
+    private String ruleSetVersion;
+    private int total;
+    private int scanned;
+    private int failed;
+    private String cursor;
+    private int resumeCount;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+    // components per second since the run was started or last resumed
+    private double throughput;
+    // estimated seconds until the run completes, null once finished or before any progress
+    private Long etaSeconds;
+}
@@ -0,0 +1,101 @@
+package org.akj.test.tracker.application.rule.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.component.event.ComponentDependenciesChangedEvent;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scans components for violations shortly after their dependencies changed, instead of waiting for the next
+ * scheduled run. The first change of a component opens a debounce window, further changes within the window are
+ * coalesced into one scan. Components that can't be queued or fail here are still picked up by the scheduled
+ * incremental scan, see {@link EverGreenRuleViolationScheduler}.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "tracker.scan.on-change.enabled", havingValue = "true", matchIfMissing = true)
+public class ComponentChangeScanQueue {
+    // change scans are continuous, their meters are kept under one batch
+    static final String BATCH_ID = "on-change";
+
+    private final EverGreenRuleViolationsScanService scanService;
+    private final RuleSetSnapshotService ruleSetSnapshotService;
+    private final long debounceNanos;
+    private final int maxPending;
+    private final int chunkSize;
+    private final ConcurrentHashMap<String, PendingScan> pending = new ConcurrentHashMap<>();
+
+    public ComponentChangeScanQueue(EverGreenRuleViolationsScanService scanService,
+                                    RuleSetSnapshotService ruleSetSnapshotService,
+                                    @Value("${tracker.scan.on-change.debounce:2s}") Duration debounce,
+                                    @Value("${tracker.scan.on-change.max-pending:10000}") int maxPending,
+                                    @Value("${tracker.scan.chunk-size:100}") int chunkSize) {
+        this.scanService = scanService;
+        this.ruleSetSnapshotService = ruleSetSnapshotService;
+        this.debounceNanos = debounce.toNanos();
+        this.maxPending = maxPending;
+        this.chunkSize = chunkSize;
+    }
+
+    private record PendingScan(ComponentDomainService.ComponentLite component, long dueAtNanos) {
+    }
+
+    @EventListener
+    public void onDependenciesChanged(ComponentDependenciesChangedEvent event) {
+        if (event.id() == null) {
+            return;
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(event.id())) {
+            log.warn("Change scan queue is full ({} components), component {} is left to the scheduled scan",
+                    maxPending, event.id());
+            return;
+        }
+        // a component already waiting keeps its window, so repeated uploads can't postpone its scan forever
+        pending.computeIfAbsent(event.id(), id -> new PendingScan(
+                new ComponentDomainService.ComponentLite(id, event.componentId(), event.branch(), null),
+                System.nanoTime() + debounceNanos));
+    }
+
+    @Scheduled(fixedDelayString = "${tracker.scan.on-change.poll-interval:PT1S}")
+    public void drain() {
+        // 1. take the components whose debounce window has passed
+        long now = System.nanoTime();
+        List<ComponentDomainService.ComponentLite> due = new ArrayList<>();
+        pending.forEach((id, scan) -> {
+            if (now - scan.dueAtNanos() >= 0 && pending.remove(id, scan)) {
+                due.add(scan.component());
+            }
+        });
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // 2. scan them chunk by chunk against the current rule set
+        RuleSetSnapshot ruleSet = ruleSetSnapshotService.current();
+        int failed = 0;
+        for (List<ComponentDomainService.ComponentLite> chunk : EverGreenRuleViolationScheduler.partition(due, chunkSize)) {
+            try {
+                failed += scanService.scanComponentsForViolations(chunk, ruleSet, BATCH_ID).failed();
+            } catch (Exception e) {
+                failed += chunk.size();
+                log.error("Failed to scan {} changed components for violations", chunk.size(), e);
+            }
+        }
+        log.info("Scanned {} changed components for violations, failed: {}, still pending: {}",
+                due.size(), failed, pending.size());
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -6,10 +6,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.akj.test.tracker.application.rule.dto.EverGreenRuleDto;
 import org.akj.test.tracker.application.rule.dto.EverGreenRuleSearchResponse;
 import org.akj.test.tracker.application.rule.mapper.EverGreenRuleMapstructMapper;
+import org.akj.test.tracker.domain.rule.event.RuleChangedEvent;
 import org.akj.test.tracker.domain.rule.model.EverGreenRule;
 import org.akj.test.tracker.infrastructure.storage.rule.EverGreenRuleRepository;
 import org.akj.test.tracker.infrastructure.utils.XxHashUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -33,13 +35,15 @@ public class EverGreenRuleService {
     private final EverGreenRuleRepository everGreenRuleRepository;
     private final EverGreenRuleMapstructMapper everGreenRuleMapstructMapper;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EverGreenRuleService(
             EverGreenRuleRepository everGreenRuleRepository, EverGreenRuleMapstructMapper everGreenRuleMapstructMapper,
-            @Qualifier("orderedObjectMapper") ObjectMapper objectMapper) {
+            @Qualifier("orderedObjectMapper") ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
         this.everGreenRuleRepository = everGreenRuleRepository;
         this.everGreenRuleMapstructMapper = everGreenRuleMapstructMapper;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -65,6 +69,7 @@ public class EverGreenRuleService {
 
         EverGreenRule savedRule = everGreenRuleRepository.save(rule);
         log.info("Rule added successfully with id: {}", savedRule.getId());
+        eventPublisher.publishEvent(new RuleChangedEvent(savedRule.getId(), now));
 
         return everGreenRuleMapstructMapper.toDto(savedRule);
     }
@@ -93,6 +98,7 @@ public class EverGreenRuleService {
 
         EverGreenRule updatedRule = everGreenRuleRepository.save(existingRule);
         log.info("Rule updated successfully with id: {}", updatedRule.getId());
+        eventPublisher.publishEvent(new RuleChangedEvent(updatedRule.getId(), updatedRule.getUpdatedAt()));
 
         return everGreenRuleMapstructMapper.toDto(updatedRule);
     }
@@ -1,44 +1,315 @@
 package org.akj.test.tracker.application.rule.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.akj.test.tracker.domain.rule.model.ScanRun;
+import org.akj.test.tracker.domain.rule.model.ScanWatermark;
+import org.akj.test.tracker.infrastructure.config.ExecutorConfig;
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
+import org.akj.test.tracker.infrastructure.storage.rule.ScanWatermarkRepository;
 import org.akj.test.tracker.infrastructure.utils.XxHashUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class EverGreenRuleViolationScheduler {
     private final EverGreenRuleViolationsScanService scanService;
     private final ComponentDomainService componentDomainService;
+    private final RuleSetSnapshotService ruleSetSnapshotService;
+    private final ScanWatermarkRepository scanWatermarkRepository;
+    private final ScanRunService scanRunService;
+    private final ScanLeaseService scanLeaseService;
+    private final ScanMetrics scanMetrics;
+    private final TaskExecutor scanExecutor;
+    private final int partitionSize;
+    private final int chunkSize;
+    private final Duration fullScanInterval;
+    private final Duration scanInterval;
+    private final Duration watermarkOverlap;
+    private final int shards;
 
-    @Scheduled(fixedDelay = 300000) // Default: daily at midnight
+    public EverGreenRuleViolationScheduler(EverGreenRuleViolationsScanService scanService,
+                                           ComponentDomainService componentDomainService,
+                                           RuleSetSnapshotService ruleSetSnapshotService,
+                                           ScanWatermarkRepository scanWatermarkRepository,
+                                           ScanRunService scanRunService,
+                                           ScanLeaseService scanLeaseService,
+                                           ScanMetrics scanMetrics,
+                                           @Qualifier(ExecutorConfig.SCAN_EXECUTOR) TaskExecutor scanExecutor,
+                                           @Value("${tracker.scan.partition-size:200}") int partitionSize,
+                                           @Value("${tracker.scan.chunk-size:100}") int chunkSize,
+                                           @Value("${tracker.scan.full-scan-interval:24h}") Duration fullScanInterval,
+                                           @Value("${tracker.scan.interval:PT5M}") Duration scanInterval,
+                                           @Value("${tracker.scan.watermark-overlap:PT10M}") Duration watermarkOverlap,
+                                           @Value("${tracker.scan.sharding.shards:8}") int shards) {
+        this.scanService = scanService;
+        this.componentDomainService = componentDomainService;
+        this.ruleSetSnapshotService = ruleSetSnapshotService;
+        this.scanWatermarkRepository = scanWatermarkRepository;
+        this.scanRunService = scanRunService;
+        this.scanLeaseService = scanLeaseService;
+        this.scanMetrics = scanMetrics;
+        this.scanExecutor = scanExecutor;
+        this.partitionSize = partitionSize;
+        this.chunkSize = chunkSize;
+        this.fullScanInterval = fullScanInterval;
+        this.scanInterval = scanInterval;
+        this.watermarkOverlap = watermarkOverlap;
+        this.shards = shards;
+    }
+
+    @Scheduled(fixedDelayString = "${tracker.scan.interval:PT5M}")
     public void scheduleRuleViolationScan() {
-        String batchId = XxHashUtils.hash(String.valueOf(System.currentTimeMillis()));
-        log.info("Starting scheduled rule violation scan, batchId: {}", batchId);
         try {
-            // Get all components that need to be scanned
-            List<ComponentDomainService.ComponentLite> components = componentDomainService.getAllComponents();
-            if (components.isEmpty()) {
-                log.info("No components found for rule violation scan, batchId: {}", batchId);
-                return;
-            }
-            log.info("Found {} components to scan for rule violations, batchId: {}", components.size(), batchId);
+            // One rule set snapshot for the whole run, shared by all shards and partitions
+            RuleSetSnapshot ruleSet = ruleSetSnapshotService.snapshotForRun();
 
-            components.stream().forEach(component -> {
+            // Every replica walks the shards in its own order and scans those it can lease
+            List<Integer> order = IntStream.range(0, shards).boxed().collect(Collectors.toCollection(ArrayList::new));
+            Collections.shuffle(order);
+            int leased = 0;
+            for (int shard : order) {
+                String shardKey = shard + "/" + shards;
+                if (!scanLeaseService.tryAcquire(shardKey)) {
+                    continue;
+                }
+                leased++;
+                Instant nextScanAt = null;
                 try {
-                    scanService.scanComponentForViolations(component);
-                } catch (Exception e) {
-                    log.error("Failed to scan component {} for violations", component.id(), e);
+                    if (scanShard(shard, shardKey, ruleSet)) {
+                        nextScanAt = Instant.now().plus(scanInterval);
+                    }
+                } finally {
+                    // an unfinished shard is free to be taken over right away
+                    scanLeaseService.release(shardKey, nextScanAt);
                 }
-            });
+            }
+            log.info("Scheduled rule violation scan finished, shards scanned by this replica: {}/{}", leased, shards);
         } catch (Exception e) {
-            log.error("Failed to execute scheduled rule violation scan, batchId: {}", batchId, e);
+            log.error("Failed to execute scheduled rule violation scan", e);
+        }
+    }
+
+    /**
+     * Scans one shard while holding its lease, true once all of its components are scanned.
+     */
+    boolean scanShard(int shard, String shardKey, RuleSetSnapshot ruleSet) {
+        long startedAt = System.nanoTime();
+        String batchId = null;
+        try {
+            // Resume a run of the shard interrupted by a restart, or start a new one
+            ScanRun run = scanRunService.findInterrupted(shardKey).orElse(null);
+            if (run != null && !Objects.equals(run.getRuleSetVersion(), ruleSet.getVersion())) {
+                log.info("Rule set changed since interrupted scan {}, abandoning it", run.getBatchId());
+                scanRunService.finish(run.getBatchId(), ScanRun.ABANDONED, run.getScanned(), run.getFailed());
+                run = null;
+            }
+            List<ComponentDomainService.ComponentLite> components;
+            if (run != null) {
+                components = componentDomainService.getComponentsToScan(run.getUpdatedSince(), run.getCursor(),
+                        shard, shards);
+                run = scanRunService.resume(run, scanLeaseService.getOwner(), components.size());
+                log.info("Resuming rule violation scan of shard {} after {}, batchId: {}, remaining: {}/{}",
+                        shardKey, run.getCursor(), run.getBatchId(), components.size(), run.getTotal());
+            } else {
+                // components updated while this run is in progress are picked up by the next one
+                Instant scanStartedAt = Instant.now();
+                // Only components changed since the last run, unless the rule set changed or a full scan is due
+                ScanWatermark state = scanWatermarkRepository.findById(watermarkId(shardKey)).orElse(null);
+                boolean fullScan = isFullScanDue(state, ruleSet, scanStartedAt);
+                // lastUpdatedAt is stamped by the writing replica's clock before the write is visible, so an
+                // incremental run reaches back by the overlap, rescanning a component twice is harmless
+                Instant updatedSince = fullScan ? null : state.getWatermark().minus(watermarkOverlap);
+                components = componentDomainService.getComponentsToScan(updatedSince, null, shard, shards);
+                if (components.isEmpty()) {
+                    saveWatermark(shardKey, null, scanStartedAt, ruleSet, fullScan);
+                    return true;
+                }
+                run = scanRunService.start(XxHashUtils.hash(shardKey + ":" + System.currentTimeMillis()), shardKey,
+                        scanLeaseService.getOwner(), fullScan, ruleSet.getVersion(), updatedSince, scanStartedAt,
+                        components.size());
+            }
+            batchId = run.getBatchId();
+
+            // Split into partitions, the scan executor bounds how many are scanned at once
+            List<List<ComponentDomainService.ComponentLite>> partitions = partition(components, partitionSize);
+            log.info("Found {} components to scan for rule violations in shard {} in {} partitions, full scan: {}, rule set: {}, batchId: {}",
+                    components.size(), shardKey, partitions.size(), run.isFullScan(), ruleSet.getVersion(), batchId);
+
+            ScanProgress progress = new ScanProgress(run, shardKey, partitions);
+            List<CompletableFuture<Void>> futures = new ArrayList<>(partitions.size());
+            for (int i = 0; i < partitions.size(); i++) {
+                int partitionIndex = i;
+                String runBatchId = batchId;
+                futures.add(CompletableFuture.runAsync(
+                        () -> scanPartition(runBatchId, partitionIndex, partitions.size(), partitions.get(partitionIndex),
+                                ruleSet, progress),
+                        scanExecutor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            scanRunService.finish(batchId, ScanRun.COMPLETED, progress.scanned.get(), progress.failed.get());
+            scanMetrics.batch(batchId).recordRun(Duration.ofNanos(System.nanoTime() - startedAt), "completed");
+            log.info("Completed rule violation scan of shard {}, batchId: {}, components: {}, failed: {}, partitions: {}, took {} ms",
+                    shardKey, batchId, progress.scanned.get(), progress.failed.get(), partitions.size(),
+                    elapsedMillis(startedAt));
+
+            // failed components are retried by the next run, so the watermark only moves after a clean run
+            if (progress.failed.get() == 0) {
+                saveWatermark(shardKey, batchId, run.getScanStartedAt(), ruleSet, run.isFullScan());
+            } else {
+                log.warn("Rule violation scan had {} failed components, keeping the previous watermark, batchId: {}",
+                        progress.failed.get(), batchId);
+            }
+            return true;
+        } catch (Exception e) {
+            // the run stays RUNNING and is resumed from its last checkpoint by whichever replica leases the shard next
+            log.error("Failed to scan shard {} for rule violations, batchId: {}, took {} ms",
+                    shardKey, batchId, elapsedMillis(startedAt), e);
+            if (batchId != null) {
+                scanMetrics.batch(batchId).recordRun(Duration.ofNanos(System.nanoTime() - startedAt), "interrupted");
+            }
+            return false;
+        }
+    }
+
+    boolean isFullScanDue(ScanWatermark state, RuleSetSnapshot ruleSet, Instant now) {
+        if (state == null || state.getWatermark() == null) {
+            log.info("No previous rule violation scan recorded, running a full scan");
+            return true;
+        }
+        if (!Objects.equals(state.getRuleSetVersion(), ruleSet.getVersion())) {
+            log.info("Rule set changed from {} to {}, running a full scan", state.getRuleSetVersion(), ruleSet.getVersion());
+            return true;
+        }
+        if (state.getLastFullScanAt() == null || state.getLastFullScanAt().plus(fullScanInterval).isBefore(now)) {
+            log.info("Last full rule violation scan at {} is older than {}, running a full scan",
+                    state.getLastFullScanAt(), fullScanInterval);
+            return true;
+        }
+        return false;
+    }
+
+    private void saveWatermark(String shardKey, String batchId, Instant runStartedAt, RuleSetSnapshot ruleSet,
+                               boolean fullScan) {
+        Instant lastFullScanAt = fullScan ? runStartedAt : scanWatermarkRepository.findById(watermarkId(shardKey))
+                .map(ScanWatermark::getLastFullScanAt)
+                .orElse(null);
+        scanWatermarkRepository.save(ScanWatermark.builder()
+                .id(watermarkId(shardKey))
+                .watermark(runStartedAt)
+                .ruleSetVersion(ruleSet.getVersion())
+                .lastFullScanAt(lastFullScanAt)
+                .batchId(batchId)
+                .updatedAt(Instant.now())
+                .build());
+    }
+
+    void scanPartition(String batchId, int partitionIndex, int partitionCount,
+                       List<ComponentDomainService.ComponentLite> partition, RuleSetSnapshot ruleSet,
+                       ScanProgress progress) {
+        long startedAt = System.nanoTime();
+        int failed = 0;
+        for (List<ComponentDomainService.ComponentLite> chunk : partition(partition, chunkSize)) {
+            // a failing chunk must not stop the rest of its partition
+            int chunkFailed;
+            try {
+                chunkFailed = scanService.scanComponentsForViolations(chunk, ruleSet, batchId).failed();
+            } catch (Exception e) {
+                chunkFailed = chunk.size();
+                log.error("Failed to scan {} components for violations, batchId: {}", chunk.size(), batchId, e);
+            }
+            failed += chunkFailed;
+            progress.failed.addAndGet(chunkFailed);
+            progress.scanned.addAndGet(chunk.size());
+            scanRunService.checkpoint(batchId, progress.cursor(), progress.scanned.get(), progress.failed.get());
+            // stop once another replica took the shard over, it resumes from the checkpoint
+            if (!scanLeaseService.renew(progress.shardKey)) {
+                throw new IllegalStateException("Lease on shard " + progress.shardKey + " was lost, batchId: " + batchId);
+            }
+        }
+        // the cursor only moves once every partition before it has been scanned as well
+        scanRunService.checkpoint(batchId, progress.completePartition(partitionIndex), progress.scanned.get(),
+                progress.failed.get());
+        log.info("Partition {}/{} scanned, batchId: {}, components: {}, failed: {}, took {} ms, overall progress: {}/{}",
+                partitionIndex + 1, partitionCount, batchId, partition.size(), failed, elapsedMillis(startedAt),
+                progress.scanned.get(), progress.total);
+    }
+
+    private static String watermarkId(String shardKey) {
+        return ScanWatermark.VIOLATION_SCAN + ":" + shardKey;
+    }
+
+    static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> partitions = new ArrayList<>((items.size() + size - 1) / size);
+        for (int from = 0; from < items.size(); from += size) {
+            partitions.add(items.subList(from, Math.min(from + size, items.size())));
+        }
+        return partitions;
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    static final class ScanProgress {
+        private final String shardKey;
+        private final int total;
+        private final AtomicInteger scanned;
+        private final AtomicInteger failed;
+        private final String[] lastIds;
+        private final boolean[] completed;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int completedPrefix;
+        private volatile String cursor;
+
+        ScanProgress(ScanRun run, String shardKey, List<List<ComponentDomainService.ComponentLite>> partitions) {
+            this.shardKey = shardKey;
+            this.total = run.getTotal();
+            this.scanned = new AtomicInteger(run.getScanned());
+            this.failed = new AtomicInteger(run.getFailed());
+            this.cursor = run.getCursor();
+            this.lastIds = partitions.stream().map(partition -> partition.get(partition.size() - 1).id()).toArray(String[]::new);
+            this.completed = new boolean[partitions.size()];
+        }
+
+        String cursor() {
+            return cursor;
+        }
+
+        /**
+         * Marks the partition as scanned and returns the last id of the longest run of scanned partitions from the
+         * start, which is where a restarted scan can resume.
+         */
+        String completePartition(int index) {
+            lock.lock();
+            try {
+                completed[index] = true;
+                while (completedPrefix < completed.length && completed[completedPrefix]) {
+                    cursor = lastIds[completedPrefix++];
+                }
+                return cursor;
+            } finally {
+                lock.unlock();
+            }
         }
-        log.info("Completed scheduled rule violation scan, batchId: {}", batchId);
     }
-} 
\ No newline at end of file
+}
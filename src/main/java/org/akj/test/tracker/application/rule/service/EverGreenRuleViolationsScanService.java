@@ -1,76 +1,254 @@
 package org.akj.test.tracker.application.rule.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.common.model.Dependency;
 import org.akj.test.tracker.domain.common.util.VersionComparator;
 import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
 import org.akj.test.tracker.domain.component.model.RuntimeInfo;
 import org.akj.test.tracker.domain.component.service.ComponentDomainService;
 import org.akj.test.tracker.domain.rule.model.*;
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
 import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
-import org.akj.test.tracker.infrastructure.storage.rule.EverGreenRuleRepository;
 import org.akj.test.tracker.infrastructure.storage.rule.RuleViolationRepository;
+import org.akj.test.tracker.infrastructure.utils.ViolationFingerprint;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class EverGreenRuleViolationsScanService {
-    private final EverGreenRuleRepository everGreenRuleRepository;
+    private static final String METRIC_PREFIX = "tracker.scan.violations";
+    // batch of scans requested for a single component
+    static final String ON_DEMAND_BATCH_ID = "on-demand";
+
     private final RuleViolationRepository ruleViolationRepository;
     private final MongoTemplate mongoTemplate;
     private final ComponentRepository componentRepository;
     private final ComponentDomainService componentDomainService;
+    private final RuleSetSnapshotService ruleSetSnapshotService;
+    private final ScanMetrics scanMetrics;
+    private final Counter writtenCounter;
+    private final Counter skippedCounter;
+
+    public EverGreenRuleViolationsScanService(RuleViolationRepository ruleViolationRepository,
+                                              MongoTemplate mongoTemplate,
+                                              ComponentRepository componentRepository,
+                                              ComponentDomainService componentDomainService,
+                                              RuleSetSnapshotService ruleSetSnapshotService,
+                                              ScanMetrics scanMetrics,
+                                              MeterRegistry meterRegistry) {
+        this.ruleViolationRepository = ruleViolationRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.componentRepository = componentRepository;
+        this.componentDomainService = componentDomainService;
+        this.ruleSetSnapshotService = ruleSetSnapshotService;
+        this.scanMetrics = scanMetrics;
+        this.writtenCounter = Counter.builder(METRIC_PREFIX + ".writes")
+                .description("Violations a scan inserted or replaced")
+                .tag("result", "written")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder(METRIC_PREFIX + ".writes")
+                .description("Violations a scan re-evaluated to an unchanged state and did not write")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+    }
+
+    public record ChunkScanResult(int scanned, int failed) {
+    }
 
     @Transactional
     public void scanComponentForViolations(ComponentDomainService.ComponentLite componentLite) {
-        log.info("Starting violation scan for component, id:{}, componentId", componentLite.id(), componentLite.componentId());
+        ChunkScanResult result = scanComponentsForViolations(List.of(componentLite), ruleSetSnapshotService.current(),
+                ON_DEMAND_BATCH_ID);
+        if (result.failed() > 0) {
+            throw new RuntimeException("Violation scan failed for component: " + componentLite.id());
+        }
+    }
 
-        // Get component details
-        ComponentAndDependency component = componentDomainService.getComponentById(componentLite.id());
-        if (Objects.isNull(component)) {
-            log.warn("Component not found for id: {}, skip violation scan.", componentLite.id());
-            throw new RuntimeException("Component not found for id: " + componentLite.id());
+    /**
+     * Scans a chunk of components against the rule set snapshot of the current run. Components and their existing
+     * violations are loaded with one query each and all violations are written with one bulk write, so the number of
+     * round trips depends on the number of chunks rather than on components times rules. Components are streamed
+     * with only the fields the rules read and are not held past their evaluation. Timings, violation transitions and
+     * Mongo round trips are recorded in the scan meters of the given batch.
+     */
+    @Transactional
+    public ChunkScanResult scanComponentsForViolations(List<ComponentDomainService.ComponentLite> chunk,
+                                                       RuleSetSnapshot ruleSet, String batchId) {
+        List<String> ids = chunk.stream().map(ComponentDomainService.ComponentLite::id).toList();
+        log.debug("Starting violation scan for {} components, rule set: {}, batchId: {}",
+                ids.size(), ruleSet.getVersion(), batchId);
+        ScanMetrics.Batch metrics = scanMetrics.batch(batchId);
+        try (ScanMetrics.RoundTrips roundTrips = metrics.countRoundTrips(ids.size())) {
+            ChunkScanResult result = scanChunk(ids, ruleSet, metrics);
+            log.debug("Chunk of {} components took {} Mongo round trips, batchId: {}", ids.size(), roundTrips.getCount(),
+                    batchId);
+            return result;
         }
+    }
 
-        // Get all rules for the component's language
-        List<EverGreenRule> rules = everGreenRuleRepository.findByRuleDefinitionLanguageAndStatusIn(component.getLanguage(),
-                List.of(RuleStatus.DRAFT, RuleStatus.ACTIVE));
-        log.info("Found {} rules for component language: {}", rules.size(), component.getLanguage());
+    private ChunkScanResult scanChunk(List<String> ids, RuleSetSnapshot ruleSet, ScanMetrics.Batch metrics) {
+        // 1. load the existing violations of the chunk in one query, keyed by component then rule, which is unique
+        Map<String, Map<String, RuleViolation>> existingViolations = new HashMap<>();
+        for (RuleViolation violation : ruleViolationRepository.findByComponentIdIn(ids)) {
+            existingViolations.computeIfAbsent(violation.getComponentId(), key -> new HashMap<>())
+                    .put(violation.getRuleId(), violation);
+        }
 
+        // 2. stream the chunk's components with a projection and resolve component/rule pairs as they arrive,
+        // a failing component does not stop the rest of the chunk
         List<RuleViolation> violations = new ArrayList<>();
+        Set<String> found = new HashSet<>();
+        int failed = 0;
+        try (Stream<ComponentAndDependency> components = componentDomainService.streamComponentsForScan(ids)) {
+            for (ComponentAndDependency component : (Iterable<ComponentAndDependency>) components::iterator) {
+                found.add(component.getId());
+                long startedAt = System.nanoTime();
+                try {
+                    violations.addAll(checkComponentViolations(component, ruleSet,
+                            existingViolations.getOrDefault(component.getId(), Map.of()), metrics));
+                    metrics.recordComponent(System.nanoTime() - startedAt);
+                } catch (Exception e) {
+                    log.error("Failed to scan component {} for violations", component.getId(), e);
+                    failed++;
+                }
+            }
+        }
 
-        for (EverGreenRule rule : rules) {
-            log.debug("Checking rule: id={}, name={}, status={}", rule.getId(), rule.getName(), rule.getStatus());
+        // 3. components removed since the chunk was selected
+        for (String id : ids) {
+            if (!found.contains(id)) {
+                log.warn("Component not found for id: {}, skip violation scan.", id);
+                failed++;
+            }
+        }
+
+        // 4. write the changed violations of the chunk with one bulk write
+        int written = saveViolations(violations);
+        log.info("Scanned {} components for violations, written: {}, unchanged: {}, failed: {}, rule set: {}",
+                ids.size(), written, violations.size() - written, failed, ruleSet.getVersion());
+        return new ChunkScanResult(ids.size(), failed);
+    }
+
+    private List<RuleViolation> checkComponentViolations(ComponentAndDependency component, RuleSetSnapshot ruleSet,
+                                                         Map<String, RuleViolation> existingByRuleId,
+                                                         ScanMetrics.Batch metrics) {
+        // Rules for the component's language, taken from the run's snapshot
+        List<RuleSetSnapshot.CompiledRule> rules = ruleSet.rulesFor(component.getLanguage());
+        List<RuleViolation> violations = new ArrayList<>();
 
-            // Find existing violation for this rule and component
-            RuleViolation existingViolation = ruleViolationRepository
-                    .findByRuleIdAndComponentId(rule.getId(), componentLite.id());
+        // each dependency is looked up once in the artefact prefix index instead of being compared with every rule
+        Map<RuleSetSnapshot.CompiledRule, List<DependencyViolation>> dependencyViolations =
+                checkDependencyViolations(ruleSet.dependencyRulesFor(component.getLanguage()), component);
 
-            RuleViolation violation = checkRuleViolations(rule, component, existingViolation);
+        for (RuleSetSnapshot.CompiledRule compiledRule : rules) {
+            EverGreenRule rule = compiledRule.rule();
+            log.debug("Checking rule: id={}, name={}, status={}", rule.getId(), rule.getName(), rule.getStatus());
+
+            long startedAt = System.nanoTime();
+            RuleViolation existing = existingByRuleId.get(rule.getId());
+            // the existing violation is updated in place, remember where it started from
+            ViolationStatus previousStatus = existing != null ? existing.getStatus() : null;
+            RuleViolation violation = checkRuleViolations(compiledRule, component, existing,
+                    dependencyViolations.getOrDefault(compiledRule, List.of()));
+            metrics.recordRule(rule.getId(), System.nanoTime() - startedAt);
             if (violation != null) {
                 violations.add(violation);
-                log.info("Found violation for rule: id={}, status={}", rule.getId(), violation.getStatus());
+                log.debug("Found violation for rule: id={}, status={}", rule.getId(), violation.getStatus());
+                if (violation.getStatus() != previousStatus) {
+                    if (violation.getStatus() == ViolationStatus.OPEN) {
+                        metrics.violationOpened();
+                    } else if (violation.getStatus() == ViolationStatus.RESOLVED) {
+                        metrics.violationResolved();
+                    }
+                }
             }
         }
+        return violations;
+    }
 
-        // Save all violations
-        if (!violations.isEmpty()) {
-            ruleViolationRepository.saveAll(violations);
-            log.info("Saved {} violations for component: {}", violations.size(), componentLite.id());
-        } else {
-            log.info("No violations found for component: {}", componentLite.id());
+    /**
+     * Writes the violations whose fingerprint differs from the one stored with them, the rest only had their
+     * timestamps touched by the scan. New violations are upserted on componentId + ruleId, which is unique, because
+     * a concurrent scan of the same component (another shard run, a rule impact or on change scan) may have written
+     * one since the chunk's violations were loaded. Two upserts racing for the same key make one of them collide, it
+     * is retried as a plain replace of the violation the other one inserted. Returns the number of violations written.
+     */
+    private int saveViolations(List<RuleViolation> violations) {
+        BulkOperations bulkOps = null;
+        // the new violations in the order they were added to the bulk, to map write errors back to them
+        List<RuleViolation> written = new ArrayList<>();
+        for (RuleViolation violation : violations) {
+            String fingerprint = ViolationFingerprint.of(violation);
+            if (violation.getId() != null && fingerprint.equals(violation.getFingerprint())) {
+                continue;
+            }
+            violation.setFingerprint(fingerprint);
+            if (bulkOps == null) {
+                bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RuleViolation.class);
+            }
+            if (violation.getId() == null) {
+                bulkOps.replaceOne(byComponentAndRule(violation), violation, FindAndReplaceOptions.options().upsert());
+            } else {
+                bulkOps.replaceOne(Query.query(Criteria.where("_id").is(violation.getId())), violation);
+            }
+            written.add(violation);
+        }
+        if (bulkOps != null) {
+            try {
+                bulkOps.execute();
+            } catch (BulkOperationException e) {
+                retryCollidedUpserts(written, e);
+            }
         }
+        writtenCounter.increment(written.size());
+        skippedCounter.increment(violations.size() - written.size());
+        return written.size();
     }
 
-    private RuleViolation checkRuleViolations(EverGreenRule rule, ComponentAndDependency component, RuleViolation existingViolation) {
+    private void retryCollidedUpserts(List<RuleViolation> written, BulkOperationException e) {
+        BulkOperations retry = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RuleViolation.class);
+        for (BulkWriteError error : e.getErrors()) {
+            RuleViolation violation = written.get(error.getIndex());
+            if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY || violation.getId() != null) {
+                throw e;
+            }
+            log.debug("Violation of rule {} on component {} was inserted concurrently, replacing it",
+                    violation.getRuleId(), violation.getComponentId());
+            retry.replaceOne(byComponentAndRule(violation), violation);
+        }
+        retry.execute();
+    }
+
+    private static Query byComponentAndRule(RuleViolation violation) {
+        return Query.query(Criteria.where("componentId").is(violation.getComponentId())
+                .and("ruleId").is(violation.getRuleId()));
+    }
+
+    private RuleViolation checkRuleViolations(RuleSetSnapshot.CompiledRule compiledRule, ComponentAndDependency component,
+                                              RuleViolation existingViolation,
+                                              List<DependencyViolation> dependencyViolations) {
+        EverGreenRule rule = compiledRule.rule();
         Instant now = Instant.now();
         boolean hasViolation = false;
 
@@ -110,8 +288,8 @@ public class EverGreenRuleViolationsScanService {
         }
 
         // Check runtime violations
-        if (rule.getRuleDefinition().getTarget().getRuntimeTarget() != null) {
-            RuntimeTarget target = rule.getRuleDefinition().getTarget().getRuntimeTarget();
+        if (compiledRule.runtimeTarget() != null) {
+            RuntimeTarget target = compiledRule.runtimeTarget();
             RuntimeInfo runtimeInfo = component.getRuntimeInfo();
 
             if (runtimeInfo == null || !VersionComparator.isVersionCompliant(
@@ -131,8 +309,7 @@ public class EverGreenRuleViolationsScanService {
         }
 
         // Check dependency violations
-        if (rule.getRuleDefinition().getTarget().getDependencyTarget() != null) {
-            List<DependencyViolation> dependencyViolations = checkDependencyViolations(rule, component);
+        if (compiledRule.dependencyTarget() != null) {
             if (!dependencyViolations.isEmpty()) {
                 log.info("Dependency violations found: ruleId={}, count={}", rule.getId(), dependencyViolations.size());
                 violation.setDependencyViolations(dependencyViolations);
@@ -161,13 +338,17 @@ public class EverGreenRuleViolationsScanService {
         return null;
     }
 
-    private List<DependencyViolation> checkDependencyViolations(EverGreenRule rule, ComponentAndDependency component) {
-        List<DependencyViolation> violations = new ArrayList<>();
-        DependencyTarget target = rule.getRuleDefinition().getTarget().getDependencyTarget();
+    private Map<RuleSetSnapshot.CompiledRule, List<DependencyViolation>> checkDependencyViolations(
+            ArtefactPrefixIndex<RuleSetSnapshot.CompiledRule> dependencyRules, ComponentAndDependency component) {
+        Map<RuleSetSnapshot.CompiledRule, List<DependencyViolation>> violations = new IdentityHashMap<>();
+        if (dependencyRules.isEmpty() || component.getDependencies() == null) {
+            return violations;
+        }
 
-        component.getDependencies().forEach(dependency -> {
-            // here should be equals or start with
-            if (dependency.getArtefact().equals(target.getArtefact()) || dependency.getArtefact().startsWith(target.getArtefact())) {
+        for (Dependency dependency : component.getDependencies()) {
+            // rules whose target artefact equals or is a prefix of the dependency's artefact
+            dependencyRules.forEachMatch(dependency.getArtefact(), compiledRule -> {
+                DependencyTarget target = compiledRule.dependencyTarget();
                 boolean isCompliant = VersionComparator.isVersionCompliant(
                         dependency.getVersion(), target.getVersion(), target.getOperator());
 
@@ -186,13 +367,14 @@ public class EverGreenRuleViolationsScanService {
                             .operator(target.getOperator())
                             .build();
 
-                    violations.add(DependencyViolation.builder()
-                            .dependencyCurrentVersion(currentVersion)
-                            .dependencyTargetVersion(targetVersion)
-                            .build());
+                    violations.computeIfAbsent(compiledRule, key -> new ArrayList<>())
+                            .add(DependencyViolation.builder()
+                                    .dependencyCurrentVersion(currentVersion)
+                                    .dependencyTargetVersion(targetVersion)
+                                    .build());
                 }
-            }
-        });
+            });
+        }
 
         return violations;
     }
@@ -0,0 +1,186 @@
+package org.akj.test.tracker.application.rule.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.application.rule.dto.RuleScanProgressDto;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.rule.event.RuleChangedEvent;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.akj.test.tracker.domain.rule.model.RuleViolation;
+import org.akj.test.tracker.infrastructure.config.ExecutorConfig;
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.rule.RuleViolationRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Re-scans only the components a rule can affect right after the rule was added or updated: components depending
+ * on an artefact starting with the rule's dependency target, components on the rule's runtime type and components
+ * that currently have a violation of the rule. Progress is kept per rule for rule authors to follow.
+ */
+@Service
+@Slf4j
+public class RuleImpactScanService {
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    private final EverGreenRuleViolationsScanService scanService;
+    private final ComponentDomainService componentDomainService;
+    private final RuleSetSnapshotService ruleSetSnapshotService;
+    private final RuleViolationRepository ruleViolationRepository;
+    private final ArtefactDictionary artefactDictionary;
+    private final ScanMetrics scanMetrics;
+    private final TaskExecutor ruleImpactExecutor;
+    private final int chunkSize;
+    private final Map<String, RuleScan> scans = new ConcurrentHashMap<>();
+
+    public RuleImpactScanService(EverGreenRuleViolationsScanService scanService,
+                                 ComponentDomainService componentDomainService,
+                                 RuleSetSnapshotService ruleSetSnapshotService,
+                                 RuleViolationRepository ruleViolationRepository,
+                                 ArtefactDictionary artefactDictionary,
+                                 ScanMetrics scanMetrics,
+                                 @Qualifier(ExecutorConfig.RULE_IMPACT_EXECUTOR) TaskExecutor ruleImpactExecutor,
+                                 @Value("${tracker.scan.chunk-size:100}") int chunkSize) {
+        this.scanService = scanService;
+        this.componentDomainService = componentDomainService;
+        this.ruleSetSnapshotService = ruleSetSnapshotService;
+        this.ruleViolationRepository = ruleViolationRepository;
+        this.artefactDictionary = artefactDictionary;
+        this.scanMetrics = scanMetrics;
+        this.ruleImpactExecutor = ruleImpactExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    // after commit when the rule is saved in a transaction, right away otherwise
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRuleChanged(RuleChangedEvent event) {
+        RuleScan scan = new RuleScan(event.ruleId());
+        // a newer change of the same rule replaces the progress of the previous one
+        scans.put(event.ruleId(), scan);
+        ruleImpactExecutor.execute(() -> scanAffectedComponents(scan));
+    }
+
+    public Optional<RuleScanProgressDto> getProgress(String ruleId) {
+        return Optional.ofNullable(scans.get(ruleId)).map(RuleScan::toDto);
+    }
+
+    void scanAffectedComponents(RuleScan scan) {
+        try {
+            // 1. the rule set changed, take a fresh snapshot so the scan sees the new rule
+            RuleSetSnapshot ruleSet = ruleSetSnapshotService.snapshotForRun();
+
+            // 2. resolve the components the rule can affect with indexed queries
+            List<ComponentDomainService.ComponentLite> components = affectedComponents(scan.ruleId, ruleSet);
+            scan.total = components.size();
+            log.info("Rule {} changed, scanning {} affected components, rule set: {}",
+                    scan.ruleId, components.size(), ruleSet.getVersion());
+
+            // 3. scan them chunk by chunk
+            for (List<ComponentDomainService.ComponentLite> chunk : EverGreenRuleViolationScheduler.partition(components, chunkSize)) {
+                try {
+                    scan.failed.addAndGet(scanService.scanComponentsForViolations(chunk, ruleSet,
+                            scan.batchId()).failed());
+                } catch (Exception e) {
+                    scan.failed.addAndGet(chunk.size());
+                    log.error("Failed to scan {} components affected by rule {}", chunk.size(), scan.ruleId, e);
+                }
+                scan.scanned.addAndGet(chunk.size());
+            }
+            finish(scan, COMPLETED);
+            log.info("Targeted scan for rule {} completed, components: {}, failed: {}",
+                    scan.ruleId, scan.total, scan.failed.get());
+        } catch (Exception e) {
+            finish(scan, FAILED);
+            log.error("Targeted scan for rule {} failed", scan.ruleId, e);
+        }
+    }
+
+    private void finish(RuleScan scan, String status) {
+        scan.finish(status);
+        // finishes the scan's meter batch, so it is removed once enough newer batches finished
+        scanMetrics.batch(scan.batchId()).recordRun(Duration.between(scan.startedAt, scan.finishedAt),
+                status.toLowerCase());
+    }
+
+    List<ComponentDomainService.ComponentLite> affectedComponents(String ruleId, RuleSetSnapshot ruleSet) {
+        Map<String, ComponentDomainService.ComponentLite> components = new LinkedHashMap<>();
+
+        // components with a violation of the rule, so violations the change resolves are updated too
+        for (RuleViolation violation : ruleViolationRepository.findComponentIdsByRuleId(ruleId)) {
+            components.putIfAbsent(violation.getComponentId(),
+                    new ComponentDomainService.ComponentLite(violation.getComponentId(), null, null, null));
+        }
+
+        // archived rules are not part of the snapshot, only their existing violations are re-evaluated
+        RuleSetSnapshot.CompiledRule rule = ruleSet.findRule(ruleId).orElse(null);
+        if (rule == null || rule.rule().getRuleDefinition() == null) {
+            return new ArrayList<>(components.values());
+        }
+
+        ProgramLanguage language = rule.rule().getRuleDefinition().getLanguage();
+        if (rule.dependencyTarget() != null && rule.dependencyTarget().getArtefact() != null) {
+            // artefacts are stored as dictionary ids, the prefix is resolved against the dictionary first
+            List<Integer> artefactIds = artefactDictionary.findIds(
+                    Pattern.compile("^" + Pattern.quote(rule.dependencyTarget().getArtefact())));
+            componentDomainService.getComponentsByLanguageAndArtefactIds(language, artefactIds)
+                    .forEach(component -> components.put(component.id(), component));
+        }
+        if (rule.runtimeTarget() != null) {
+            componentDomainService.getComponentsByLanguageAndRuntimeType(language, rule.runtimeTarget().getRuntimeType())
+                    .forEach(component -> components.put(component.id(), component));
+        }
+        return new ArrayList<>(components.values());
+    }
+
+    static final class RuleScan {
+        private final String ruleId;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger scanned = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile int total;
+        private volatile String status = RUNNING;
+        private volatile Instant finishedAt;
+
+        RuleScan(String ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        private String batchId() {
+            return "rule-" + ruleId;
+        }
+
+        private void finish(String status) {
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+
+        private RuleScanProgressDto toDto() {
+            return RuleScanProgressDto.builder()
+                    .ruleId(ruleId)
+                    .status(status)
+                    .total(total)
+                    .scanned(scanned.get())
+                    .failed(failed.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
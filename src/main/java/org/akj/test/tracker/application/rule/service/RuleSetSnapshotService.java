@@ -0,0 +1,85 @@
+package org.akj.test.tracker.application.rule.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.rule.model.EverGreenRule;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.akj.test.tracker.domain.rule.model.RuleStatus;
+import org.akj.test.tracker.infrastructure.storage.rule.EverGreenRuleRepository;
+import org.akj.test.tracker.infrastructure.utils.XxHashUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link RuleSetSnapshot}. A scan run calls {@link #snapshotForRun()} once and hands the returned
+ * snapshot to all of its workers; rule changes during the run only show up in the snapshot of the next run, the
+ * current one is replaced atomically and never modified.
+ */
+@Service
+@Slf4j
+public class RuleSetSnapshotService {
+    static final List<RuleStatus> SCANNED_STATUSES = List.of(RuleStatus.DRAFT, RuleStatus.ACTIVE);
+
+    private final EverGreenRuleRepository everGreenRuleRepository;
+    private final AtomicReference<RuleSetSnapshot> current = new AtomicReference<>();
+
+    public RuleSetSnapshotService(EverGreenRuleRepository everGreenRuleRepository) {
+        this.everGreenRuleRepository = everGreenRuleRepository;
+    }
+
+    /**
+     * Loads the rule set with one query. An unchanged rule set keeps the current snapshot, a changed one replaces it.
+     */
+    public RuleSetSnapshot snapshotForRun() {
+        List<EverGreenRule> rules = new ArrayList<>(everGreenRuleRepository.findByStatusIn(SCANNED_STATUSES));
+        rules.sort(Comparator.comparing(EverGreenRule::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+        String version = version(rules);
+
+        RuleSetSnapshot previous = current.get();
+        if (previous != null && previous.getVersion().equals(version)) {
+            return previous;
+        }
+
+        Map<ProgramLanguage, List<RuleSetSnapshot.CompiledRule>> rulesByLanguage = new EnumMap<>(ProgramLanguage.class);
+        for (EverGreenRule rule : rules) {
+            if (rule.getRuleDefinition() == null || rule.getRuleDefinition().getLanguage() == null) {
+                log.warn("Rule {} has no language, it is not scanned", rule.getId());
+                continue;
+            }
+            rulesByLanguage.computeIfAbsent(rule.getRuleDefinition().getLanguage(), language -> new ArrayList<>())
+                    .add(RuleSetSnapshot.CompiledRule.of(rule));
+        }
+        RuleSetSnapshot snapshot = new RuleSetSnapshot(version, Instant.now(), rulesByLanguage);
+        current.set(snapshot);
+        log.info("Rule set snapshot {} loaded with {} rules", version, snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * The snapshot of the latest run, loaded on first use for scans outside a run.
+     */
+    public RuleSetSnapshot current() {
+        RuleSetSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : snapshotForRun();
+    }
+
+    // changes of id, status or content (checksum) or an update all yield a new version
+    private static String version(List<EverGreenRule> rules) {
+        StringBuilder content = new StringBuilder(rules.size() * 64);
+        for (EverGreenRule rule : rules) {
+            content.append(rule.getId()).append('|')
+                    .append(rule.getStatus()).append('|')
+                    .append(rule.getChecksum()).append('|')
+                    .append(Objects.toString(rule.getUpdatedAt(), "")).append('\n');
+        }
+        return XxHashUtils.hash(content.toString());
+    }
+}
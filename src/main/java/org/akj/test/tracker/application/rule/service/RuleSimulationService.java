@@ -0,0 +1,123 @@
+package org.akj.test.tracker.application.rule.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.application.rule.dto.EverGreenRuleDto;
+import org.akj.test.tracker.application.rule.dto.RuleSimulationResponse;
+import org.akj.test.tracker.application.rule.mapper.EverGreenRuleMapstructMapper;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.rule.model.EverGreenRule;
+import org.akj.test.tracker.domain.rule.model.FleetSnapshot;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Predicts what an unsaved rule would flag by evaluating it against a {@link FleetSnapshot} of all components held in
+ * memory. The snapshot is built on the first simulation and rebuilt every
+ * {@code tracker.simulation.fleet-refresh-interval}, a simulation never waits for Mongo once it exists.
+ */
+@Service
+@Slf4j
+public class RuleSimulationService {
+    private final ComponentDomainService componentDomainService;
+    private final EverGreenRuleMapstructMapper everGreenRuleMapstructMapper;
+    private final int sampleSize;
+    private final AtomicReference<FleetSnapshot> fleet = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public RuleSimulationService(ComponentDomainService componentDomainService,
+                                 EverGreenRuleMapstructMapper everGreenRuleMapstructMapper,
+                                 @Value("${tracker.simulation.sample-size:20}") int sampleSize) {
+        this.componentDomainService = componentDomainService;
+        this.everGreenRuleMapstructMapper = everGreenRuleMapstructMapper;
+        this.sampleSize = sampleSize;
+    }
+
+    public RuleSimulationResponse simulate(EverGreenRuleDto ruleDto) {
+        long startedAt = System.nanoTime();
+        EverGreenRule rule = everGreenRuleMapstructMapper.toDomain(ruleDto);
+        if (rule.getRuleDefinition() == null || rule.getRuleDefinition().getLanguage() == null) {
+            throw new IllegalArgumentException("Rule language is required");
+        }
+        RuleSetSnapshot.CompiledRule compiledRule = RuleSetSnapshot.CompiledRule.of(rule);
+        if (compiledRule.runtimeTarget() == null && compiledRule.dependencyTarget() == null) {
+            throw new IllegalArgumentException("Rule must have a runtime or a dependency target");
+        }
+
+        FleetSnapshot snapshot = currentFleet();
+        FleetSnapshot.Simulation simulation = snapshot.simulate(compiledRule, rule.getRuleDefinition().getLanguage(),
+                sampleSize);
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        log.info("Simulated rule {} against {} components, violating: {}, took {} ms",
+                rule.getName(), simulation.evaluated(), simulation.violating(), tookMillis);
+
+        return RuleSimulationResponse.builder()
+                .evaluatedComponents(simulation.evaluated())
+                .violatingComponents(simulation.violating())
+                .runtimeViolations(simulation.runtimeViolations())
+                .dependencyViolations(simulation.dependencyViolations())
+                .byLanguage(simulation.byLanguage())
+                .byEim(simulation.byEim())
+                .samples(simulation.samples().stream()
+                        .map(sample -> RuleSimulationResponse.SampleComponent.builder()
+                                .id(sample.id())
+                                .name(sample.name())
+                                .eimId(sample.eimId())
+                                .runtimeVersion(sample.runtimeVersion())
+                                .dependencyViolations(sample.dependencyViolations())
+                                .dependencies(sample.dependencies())
+                                .build())
+                        .toList())
+                .snapshotTakenAt(snapshot.getTakenAt())
+                .tookMillis(tookMillis)
+                .build();
+    }
+
+    // the first snapshot is built by the first simulation, replicas never asked to simulate don't hold one
+    @Scheduled(fixedDelayString = "${tracker.simulation.fleet-refresh-interval:PT10M}",
+            initialDelayString = "${tracker.simulation.fleet-refresh-interval:PT10M}")
+    public void refreshFleet() {
+        if (fleet.get() == null) {
+            return;
+        }
+        try {
+            rebuildFleet();
+        } catch (Exception e) {
+            log.error("Failed to rebuild the fleet snapshot, keeping the previous one", e);
+        }
+    }
+
+    FleetSnapshot currentFleet() {
+        FleetSnapshot snapshot = fleet.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        rebuildLock.lock();
+        try {
+            snapshot = fleet.get();
+            return snapshot != null ? snapshot : rebuildFleet();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private FleetSnapshot rebuildFleet() {
+        long startedAt = System.nanoTime();
+        FleetSnapshot.Builder builder = new FleetSnapshot.Builder();
+        try (Stream<ComponentAndDependency> components = componentDomainService.streamComponentsForSimulation()) {
+            components.forEach(builder::add);
+        }
+        FleetSnapshot snapshot = builder.build();
+        fleet.set(snapshot);
+        log.info("Fleet snapshot rebuilt, components: {}, took {} ms",
+                snapshot.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return snapshot;
+    }
+}
@@ -0,0 +1,91 @@
+package org.akj.test.tracker.application.rule.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.rule.model.ScanLease;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Claims, renews and releases {@link ScanLease}s so each shard of the violation scan is scanned by one replica at a
+ * time.
+ */
+@Service
+@Slf4j
+public class ScanLeaseService {
+    private final MongoTemplate mongoTemplate;
+    private final Duration leaseTtl;
+    // unique per process, a restarted node must not mistake the leases of its previous incarnation for its own
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    public ScanLeaseService(MongoTemplate mongoTemplate,
+                            @Value("${tracker.scan.sharding.lease-ttl:2m}") Duration leaseTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseTtl = leaseTtl;
+    }
+
+    /**
+     * Claims the shard if it is free, expired or already ours, and not scheduled for later.
+     */
+    public boolean tryAcquire(String shardKey) {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(shardKey).andOperator(
+                new Criteria().orOperator(
+                        Criteria.where("owner").is(owner),
+                        Criteria.where("owner").is(null),
+                        Criteria.where("expiresAt").lt(now)),
+                new Criteria().orOperator(
+                        Criteria.where("nextScanAt").is(null),
+                        Criteria.where("nextScanAt").lte(now))));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(leaseTtl))
+                .set("acquiredAt", now);
+        try {
+            // a lease held by another replica doesn't match, the upsert then collides with its _id
+            mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true), ScanLease.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Extends the lease, false if it expired and another replica took the shard over.
+     */
+    public boolean renew(String shardKey) {
+        return mongoTemplate.updateFirst(ownedBy(shardKey), Update.update("expiresAt", Instant.now().plus(leaseTtl)),
+                ScanLease.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * Gives the shard up, the next scan of it is due at nextScanAt, or right away if null.
+     */
+    public void release(String shardKey, Instant nextScanAt) {
+        Update update = new Update()
+                .unset("owner")
+                .set("expiresAt", Instant.now());
+        if (nextScanAt != null) {
+            update.set("nextScanAt", nextScanAt);
+        }
+        mongoTemplate.updateFirst(ownedBy(shardKey), update, ScanLease.class);
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    private Query ownedBy(String shardKey) {
+        return Query.query(Criteria.where("_id").is(shardKey).and("owner").is(owner));
+    }
+}
@@ -0,0 +1,133 @@
+package org.akj.test.tracker.application.rule.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.application.rule.dto.ScanRunDto;
+import org.akj.test.tracker.domain.rule.model.ScanRun;
+import org.akj.test.tracker.infrastructure.storage.rule.ScanRunRepository;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Records the state of scheduled violation scans in {@code scan_runs}, see {@link ScanRun}.
+ */
+@Service
+@Slf4j
+public class ScanRunService {
+    private final ScanRunRepository scanRunRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public ScanRunService(ScanRunRepository scanRunRepository, MongoTemplate mongoTemplate) {
+        this.scanRunRepository = scanRunRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * The latest run of the shard that never completed. Only the holder of the shard's lease scans it, so a run
+     * still marked RUNNING was interrupted.
+     */
+    public Optional<ScanRun> findInterrupted(String shard) {
+        return scanRunRepository.findFirstByShardAndStatusOrderByStartedAtDesc(shard, ScanRun.RUNNING);
+    }
+
+    public ScanRun start(String batchId, String shard, String owner, boolean fullScan, String ruleSetVersion,
+                         Instant updatedSince, Instant scanStartedAt, int total) {
+        Instant now = Instant.now();
+        return scanRunRepository.insert(ScanRun.builder()
+                .batchId(batchId)
+                .status(ScanRun.RUNNING)
+                .shard(shard)
+                .owner(owner)
+                .fullScan(fullScan)
+                .ruleSetVersion(ruleSetVersion)
+                .updatedSince(updatedSince)
+                .scanStartedAt(scanStartedAt)
+                .total(total)
+                .startedAt(now)
+                .resumedAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    /**
+     * Resumes an interrupted run, components after its cursor are all that is left to scan.
+     */
+    public ScanRun resume(ScanRun run, String owner, int remaining) {
+        Instant now = Instant.now();
+        run.setOwner(owner);
+        // components after the cursor may have been scanned already, they are counted again when rescanned
+        run.setScanned(Math.max(0, run.getTotal() - remaining));
+        run.setScannedBeforeResume(run.getScanned());
+        run.setResumeCount(run.getResumeCount() + 1);
+        run.setResumedAt(now);
+        run.setUpdatedAt(now);
+        return scanRunRepository.save(run);
+    }
+
+    /**
+     * Records progress of a running scan. Partitions report concurrently, so values only ever move forward.
+     */
+    public void checkpoint(String batchId, String cursor, int scanned, int failed) {
+        Update update = new Update()
+                .max("scanned", scanned)
+                .max("failed", failed)
+                .set("updatedAt", Instant.now());
+        if (cursor != null) {
+            // ObjectId hex strings of equal length sort like the ids themselves
+            update.max("cursor", cursor);
+        }
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(batchId)), update, ScanRun.class);
+    }
+
+    public void finish(String batchId, String status, int scanned, int failed) {
+        Instant now = Instant.now();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(batchId)), new Update()
+                .set("status", status)
+                .set("scanned", scanned)
+                .set("failed", failed)
+                .set("updatedAt", now)
+                .set("finishedAt", now), ScanRun.class);
+    }
+
+    public Optional<ScanRunDto> getScanRun(String batchId) {
+        return scanRunRepository.findById(batchId).map(ScanRunService::toDto);
+    }
+
+    static ScanRunDto toDto(ScanRun run) {
+        // throughput of the current attempt, time spent down between attempts doesn't count
+        Instant from = run.getResumedAt() != null ? run.getResumedAt() : run.getStartedAt();
+        Instant to = run.getFinishedAt() != null ? run.getFinishedAt() : Instant.now();
+        double seconds = Math.max(Duration.between(from, to).toMillis(), 1) / 1000.0;
+        double throughput = Math.max(run.getScanned() - run.getScannedBeforeResume(), 0) / seconds;
+
+        Long etaSeconds = null;
+        if (ScanRun.RUNNING.equals(run.getStatus()) && throughput > 0) {
+            etaSeconds = (long) Math.ceil(Math.max(run.getTotal() - run.getScanned(), 0) / throughput);
+        }
+
+        return ScanRunDto.builder()
+                .batchId(run.getBatchId())
+                .status(run.getStatus())
+                .shard(run.getShard())
+                .owner(run.getOwner())
+                .fullScan(run.isFullScan())
+                .ruleSetVersion(run.getRuleSetVersion())
+                .total(run.getTotal())
+                .scanned(run.getScanned())
+                .failed(run.getFailed())
+                .cursor(run.getCursor())
+                .resumeCount(run.getResumeCount())
+                .startedAt(run.getStartedAt())
+                .updatedAt(run.getUpdatedAt())
+                .finishedAt(run.getFinishedAt())
+                .throughput(throughput)
+                .etaSeconds(etaSeconds)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package org.akj.test.tracker.domain.common.util;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable numeric form of a version string such as {@code 1.2.3} or {@code 2.0-SNAPSHOT}: the dot separated parts
+ * as ints, with the suffix after the first dash dropped. Parts missing on one side compare as 0, so {@code 1.2} and
+ * {@code 1.2.0} are equal, but the number of parts written is kept because {@code ~} and {@code ^} depend on it.
+ */
+public final class ParsedVersion implements Comparable<ParsedVersion> {
+    private static final Pattern VERSION_PATTERN = Pattern.compile("^[0-9]+(\\.[0-9]+)*(-[a-zA-Z0-9]+)?$");
+
+    private final int[] parts;
+
+    private ParsedVersion(int[] parts) {
+        this.parts = parts;
+    }
+
+    /**
+     * @return the parsed version, or null if the string is not a valid version or a part doesn't fit in an int
+     */
+    public static ParsedVersion parse(String version) {
+        if (version == null || !VERSION_PATTERN.matcher(version).matches()) {
+            return null;
+        }
+        int dashIndex = version.indexOf('-');
+        int end = dashIndex > 0 ? dashIndex : version.length();
+
+        int[] parts = new int[1];
+        int count = 0;
+        long value = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || version.charAt(i) == '.') {
+                if (count == parts.length) {
+                    parts = Arrays.copyOf(parts, count * 2);
+                }
+                parts[count++] = (int) value;
+                value = 0;
+                continue;
+            }
+            value = value * 10 + (version.charAt(i) - '0');
+            if (value > Integer.MAX_VALUE) {
+                return null;
+            }
+        }
+        return new ParsedVersion(Arrays.copyOf(parts, count));
+    }
+
+    public int length() {
+        return parts.length;
+    }
+
+    public int part(int index) {
+        return index < parts.length ? parts[index] : 0;
+    }
+
+    @Override
+    public int compareTo(ParsedVersion other) {
+        int maxLength = Math.max(parts.length, other.parts.length);
+        for (int i = 0; i < maxLength; i++) {
+            int comparison = Integer.compare(part(i), other.part(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    // consistent with compareTo, trailing zero parts are ignored
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ParsedVersion other && compareTo(other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(Arrays.copyOf(parts, significantLength()));
+    }
+
+    private int significantLength() {
+        int length = parts.length;
+        while (length > 0 && parts[length - 1] == 0) {
+            length--;
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            builder.append(i == 0 ? "" : ".").append(parts[i]);
+        }
+        return builder.toString();
+    }
+}
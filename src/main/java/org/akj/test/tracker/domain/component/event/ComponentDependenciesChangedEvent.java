@@ -0,0 +1,13 @@
+package org.akj.test.tracker.domain.component.event;
+
+import java.time.Instant;
+
+/**
+ * Published after the dependencies of a component were written with a new checksum, including first inserts.
+ *
+ * @param id          the component document id
+ * @param componentId the EIM component id, null for components identified by metadata
+ */
+public record ComponentDependenciesChangedEvent(String id, String componentId, String branch, String checksum,
+                                                Instant changedAt) {
+}
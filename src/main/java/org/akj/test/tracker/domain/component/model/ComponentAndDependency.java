@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.akj.test.tracker.domain.common.model.Dependency;
 import org.akj.test.tracker.domain.common.model.ProgramLanguage;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.mongodb.core.mapping.MongoId;
@@ -20,6 +21,16 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "component_dependency")
+// componentId + branch is unique, the index is built by UniqueIndexMigration once existing duplicates are removed
+// dependencies reference their artefact by dictionary id, see ArtefactDictionary
+@CompoundIndex(name = "dependencies_artefactId", def = "{'dependencies.artefactId': 1}")
+// cold storage compaction, dependencyCount is only set on cold components
+@CompoundIndex(name = "lastUpdatedAt", def = "{'lastUpdatedAt': 1}")
+@CompoundIndex(name = "dependencyCount", def = "{'dependencyCount': 1}", sparse = true)
+// version facets match hot and cold components in one $or, both branches need an index
+@CompoundIndex(name = "facetDependencies_artefactId", def = "{'facetDependencies.artefactId': 1}", sparse = true)
+// targeted scans of runtime rules
+@CompoundIndex(name = "language_runtimeType", def = "{'language': 1, 'runtimeInfo.type': 1}")
 public class ComponentAndDependency {
 
 //    @MongoId
@@ -45,6 +56,10 @@ public class ComponentAndDependency {
     @Builder.Default
     private List<Dependency> dependencies = new ArrayList<>();
 
+    // cold components store their dependencies LZ4 packed instead, see PackedDependencyCodec
+    private byte[] packedDependencies;
+    private Integer dependencyCount;
+
     // for inactive component detection
     private Instant lastUpdatedAt;
     private Instant createdAt;
@@ -0,0 +1,55 @@
+package org.akj.test.tracker.domain.component.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One dependency change of a component. Most entries only hold the delta to the previous entry (added, removed and
+ * changed dependencies), every n-th entry is a checkpoint holding the full dependency set, so a past state can be
+ * rebuilt by replaying the deltas recorded after the closest checkpoint.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "component_dependency_history")
+// unique, concurrent writers of the same component must not share a sequence
+@CompoundIndex(name = "componentRef_sequence_unique", def = "{'componentRef': 1, 'sequence': -1}", unique = true)
+public class DependencyHistory {
+    @Id
+    private String id;
+
+    // _id of the ComponentAndDependency document
+    private String componentRef;
+    private String componentId;
+    private String branch;
+
+    // increases by one per change of the component
+    private long sequence;
+    private String previousChecksum;
+    private String checksum;
+
+    // full dependency set, only for checkpoints
+    private boolean checkpoint;
+    private List<Dependency> dependencies;
+
+    // delta to the previous entry, a changed dependency keeps artefact and type but has a new version
+    @Builder.Default
+    private List<Dependency> added = new ArrayList<>();
+    @Builder.Default
+    private List<Dependency> removed = new ArrayList<>();
+    @Builder.Default
+    private List<Dependency> changed = new ArrayList<>();
+
+    private Instant recordedAt;
+}
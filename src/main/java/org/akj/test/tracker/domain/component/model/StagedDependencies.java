@@ -0,0 +1,38 @@
+package org.akj.test.tracker.domain.component.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One chunk of dependencies of an NDJSON upload in progress. Every upload stages under its own uploadId and the
+ * component is only written when the upload commits, so concurrent uploads of the same component never see each
+ * other's chunks. Chunks of uploads that neither committed nor rolled back, e.g. because the pod died, expire.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "component_dependency_staging")
+@CompoundIndex(name = "uploadId_sequence", def = "{'uploadId': 1, 'sequence': 1}")
+public class StagedDependencies {
+    @Id
+    private String id;
+
+    private String uploadId;
+    // chunks are committed in staging order
+    private int sequence;
+    private List<Dependency> dependencies;
+
+    @Indexed(name = "stagedAt_ttl", expireAfter = "1d")
+    private Instant stagedAt;
+}
@@ -1,31 +1,101 @@
 package org.akj.test.tracker.domain.component.service;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.common.model.RuntimeType;
 import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
 import org.akj.test.tracker.domain.component.model.ComponentMetadata;
+import org.akj.test.tracker.domain.component.model.StagedDependencies;
+import org.akj.test.tracker.domain.component.service.DependencyHistoryService.DependencyChange;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.DependencyWritingConverter;
 import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
+import org.akj.test.tracker.infrastructure.storage.component.scan.RawComponentReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
 import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
 
 @Service
 public class ComponentDomainService {
+    // cold storage encoding, written by the ColdStorageCompactor and dropped by every dependency write
+    public static final String PACKED_DEPENDENCIES = "packedDependencies";
+    public static final String DEPENDENCY_COUNT = "dependencyCount";
+    // dependencies of cold components the version facet reports on, kept unpacked, see FacetDependencies
+    public static final String FACET_DEPENDENCIES = "facetDependencies";
+    // components with thousands of dependencies are large, keep the batches of a scan cursor small
+    private static final int SCAN_CURSOR_BATCH_SIZE = 20;
+    // attempts of an upsert that collides with concurrent uploads of the same component
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+    private static final List<String> SCAN_FIELDS = List.of("language", "runtimeInfo", "metadata.name",
+            "dependencies." + DependencyWritingConverter.ARTEFACT_ID, "dependencies.artefact", "dependencies.version",
+            PACKED_DEPENDENCIES);
 
     private final MongoTemplate mongoTemplate;
     private final ComponentRepository componentRepository;
+    private final DependencyHistoryService dependencyHistoryService;
+    private final ArtefactDictionary artefactDictionary;
+    private final RawComponentReader rawComponentReader;
 
-    public ComponentDomainService(MongoTemplate mongoTemplate, ComponentRepository componentRepository) {
+    public ComponentDomainService(MongoTemplate mongoTemplate, ComponentRepository componentRepository,
+                                  DependencyHistoryService dependencyHistoryService,
+                                  ArtefactDictionary artefactDictionary,
+                                  RawComponentReader rawComponentReader) {
         this.mongoTemplate = mongoTemplate;
         this.componentRepository = componentRepository;
+        this.dependencyHistoryService = dependencyHistoryService;
+        this.artefactDictionary = artefactDictionary;
+        this.rawComponentReader = rawComponentReader;
     }
 
     public record ComponentLite(String id, String componentId, String branch, ComponentMetadata metadata) {
     }
 
+    public enum UpsertResult {
+        INSERTED, UPDATED, UNCHANGED
+    }
+
+    // outcomes of expectedUnchanged are in the order of the components passed to bulkSaveComponents
+    public record BulkSaveResult(List<ComponentAndDependency> notInserted, List<UpsertResult> expectedUnchanged) {
+    }
+
 
     public List<ComponentLite> getAllComponents() {
         // Fetch all components from the repository
@@ -40,7 +110,457 @@ public class ComponentDomainService {
 
     }
 
+    /**
+     * Components to scan in {@code _id} order, optionally only those updated at or after the given instant and those
+     * after the given {@code _id}, used by incremental and resumed violation scans. With more than one shard only the
+     * components of the given shard are returned, see {@link #shardOf(String, int)}.
+     */
+    public List<ComponentLite> getComponentsToScan(Instant updatedSince, String afterId, int shard, int shards) {
+        Criteria criteria = new Criteria();
+        if (updatedSince != null) {
+            criteria = criteria.and("lastUpdatedAt").gte(updatedSince);
+        }
+        if (afterId != null) {
+            criteria = criteria.and("_id").gt(new ObjectId(afterId));
+        }
+        if (shards > 1) {
+            // same as shardOf, evaluated on the server so other shards' components are never transferred
+            List<String> shardBytes = new ArrayList<>();
+            for (int value = shard; value < 256; value += shards) {
+                shardBytes.add(String.format("%02x", value));
+            }
+            Document lastByte = new Document("$substrBytes", List.of(new Document("$toString", "$_id"), 22, 2));
+            criteria = criteria.andOperator(Criteria.expr(() -> new Document("$in", List.of(lastByte, shardBytes))));
+        }
+        return mongoTemplate.aggregate(newAggregation(ComponentAndDependency.class,
+                match(criteria),
+                sort(Sort.Direction.ASC, "_id"),
+                // a full run holds every id, metadata is read with the components of each chunk instead
+                project("id", "componentId", "branch")), ComponentLite.class).getMappedResults();
+    }
+
+    /**
+     * Shard of a component for distributed scans. The last byte of an ObjectId is the low byte of its insert counter,
+     * so consecutive inserts are spread evenly over the shards.
+     */
+    public static int shardOf(String id, int shards) {
+        return Integer.parseInt(id.substring(22, 24), 16) % shards;
+    }
+
+    /**
+     * Components of the language depending on one of the artefacts. Cold components are always included since their
+     * packed dependencies are not covered by the artefact index.
+     */
+    public List<ComponentLite> getComponentsByLanguageAndArtefactIds(ProgramLanguage language,
+                                                                    Collection<Integer> artefactIds) {
+        Criteria criteria = Criteria.where("language").is(language).orOperator(
+                Criteria.where("dependencies." + DependencyWritingConverter.ARTEFACT_ID).in(artefactIds),
+                Criteria.where(DEPENDENCY_COUNT).exists(true));
+        return mongoTemplate.aggregate(newAggregation(ComponentAndDependency.class,
+                match(criteria),
+                project("id", "componentId", "branch", "metadata")), ComponentLite.class).getMappedResults();
+    }
+
+    /**
+     * Components of the language running on the runtime type, all components of the language if the type is null.
+     */
+    public List<ComponentLite> getComponentsByLanguageAndRuntimeType(ProgramLanguage language, RuntimeType runtimeType) {
+        Criteria criteria = Criteria.where("language").is(language);
+        if (runtimeType != null) {
+            criteria = criteria.and("runtimeInfo.type").is(runtimeType);
+        }
+        return mongoTemplate.aggregate(newAggregation(ComponentAndDependency.class,
+                match(criteria),
+                project("id", "componentId", "branch", "metadata")), ComponentLite.class).getMappedResults();
+    }
+
     public ComponentAndDependency getComponentById(String id) {
         return mongoTemplate.findById(new ObjectId(id), ComponentAndDependency.class);
     }
+
+    /**
+     * Streams the components with only the fields a violation scan reads: language, runtime, name and the artefact and
+     * version of every dependency, packed dependencies of cold components are unpacked as usual. Documents are pulled
+     * from the cursor one batch at a time and decoded from raw BSON by the {@link RawComponentReader} instead of the
+     * mapping converter, the stream has to be closed to release the cursor.
+     */
+    public Stream<ComponentAndDependency> streamComponentsForScan(Collection<String> ids) {
+        List<ObjectId> objectIds = ids.stream().map(ObjectId::new).toList();
+        return streamRawComponents(Filters.in("_id", objectIds), SCAN_FIELDS);
+    }
+
+    /**
+     * Streams every component with the fields of {@link #streamComponentsForScan(Collection)} plus the EIM id, used to
+     * build the in-memory fleet snapshot rules are simulated against.
+     */
+    public Stream<ComponentAndDependency> streamComponentsForSimulation() {
+        List<String> fields = new ArrayList<>(SCAN_FIELDS);
+        fields.add("metadata.eimId");
+        return streamRawComponents(new Document(), fields);
+    }
+
+    private Stream<ComponentAndDependency> streamRawComponents(Bson filter, List<String> fields) {
+        MongoCursor<RawBsonDocument> cursor = mongoTemplate.getCollection(
+                        mongoTemplate.getCollectionName(ComponentAndDependency.class))
+                .withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .projection(Projections.include(fields))
+                .batchSize(SCAN_CURSOR_BATCH_SIZE)
+                .cursor();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .map(rawComponentReader::read)
+                .onClose(cursor::close);
+    }
+
+    public Optional<DependencyHistoryService.DependencySnapshot> getDependenciesAt(String id, Instant at) {
+        return dependencyHistoryService.rebuild(id, at);
+    }
+
+    /**
+     * Loads the checksum of every component matching one of the given componentIds and branches with a single
+     * {@code $in} query. The result is a superset of the requested pairs, callers match componentId + branch themselves.
+     */
+    public List<ComponentAndDependency> findChecksumsByComponentIdAndBranchIn(Collection<String> componentIds,
+                                                                             Collection<String> branches) {
+        Query query = Query.query(Criteria.where("componentId").in(componentIds).and("branch").in(branches));
+        query.fields().include("componentId", "branch", "checksum");
+        return mongoTemplate.find(query, ComponentAndDependency.class);
+    }
+
+    /**
+     * Saves a component found through its metadata. The previous dependencies are not loaded on that path, so the
+     * change is recorded as a history checkpoint.
+     */
+    public ComponentAndDependency saveComponent(ComponentAndDependency component, String previousChecksum) {
+        registerArtefacts(component.getDependencies());
+        ComponentAndDependency saved = componentRepository.save(component);
+        dependencyHistoryService.record(new DependencyChange(saved.getId(), saved.getComponentId(), saved.getBranch(),
+                previousChecksum, null, saved.getChecksum(), saved.getDependencies(), saved.getLastUpdatedAt()));
+        return saved;
+    }
+
+    /**
+     * Writes new and changed components through one unordered bulk operation, existing components only get their
+     * dependencies, checksum and lastUpdatedAt replaced. The previous dependencies of changed components are loaded
+     * with one extra {@code $in} query so the history can store deltas.
+     * <p>
+     * Components the caller expects to be unchanged, without having looked them up, are written in the same bulk with
+     * the checksum guarded upsert of {@link #upsertComponent(ComponentAndDependency)}: it collides with the stored
+     * document and writes nothing when the checksum matches, and restores the uploaded dependencies when another
+     * writer changed them in between.
+     *
+     * @return the outcome of every expected unchanged component, and the new components that were not inserted
+     * because a concurrent upload inserted the same componentId + branch first. Callers retry the latter with
+     * {@link #upsertComponent(ComponentAndDependency)}, everything else is written and recorded in the history.
+     */
+    public BulkSaveResult bulkSaveComponents(List<ComponentAndDependency> newComponents,
+                                             List<ComponentAndDependency> changedComponents,
+                                             List<ComponentAndDependency> expectedUnchangedComponents) {
+        if (newComponents.isEmpty() && changedComponents.isEmpty() && expectedUnchangedComponents.isEmpty()) {
+            return new BulkSaveResult(List.of(), List.of());
+        }
+
+        Map<String, ComponentAndDependency> previousById = new HashMap<>();
+        if (!changedComponents.isEmpty()) {
+            Query previousQuery = Query.query(Criteria.where("_id")
+                    .in(changedComponents.stream().map(component -> new ObjectId(component.getId())).toList()));
+            previousQuery.fields().include("checksum", "dependencies", PACKED_DEPENDENCIES);
+            mongoTemplate.find(previousQuery, ComponentAndDependency.class)
+                    .forEach(previous -> previousById.put(previous.getId(), previous));
+        }
+
+        // unknown artefacts of the whole batch get their dictionary ids in one go instead of one by one while writing
+        registerArtefacts(Stream.of(newComponents, changedComponents, expectedUnchangedComponents)
+                .flatMap(List::stream)
+                .map(ComponentAndDependency::getDependencies)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .toList());
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ComponentAndDependency.class);
+        if (!newComponents.isEmpty()) {
+            // ids are assigned up front, the history entries reference them
+            newComponents.forEach(component -> component.setId(new ObjectId().toHexString()));
+            bulkOps.insert(newComponents);
+        }
+        changedComponents.forEach(component -> bulkOps.updateOne(
+                byId(component.getId()),
+                hot(new Update()
+                        .set("dependencies", component.getDependencies())
+                        .set("checksum", component.getChecksum())
+                        .set("lastUpdatedAt", component.getLastUpdatedAt()))));
+        List<ObjectId> insertIds = new ArrayList<>(expectedUnchangedComponents.size());
+        expectedUnchangedComponents.forEach(component -> {
+            ObjectId insertId = new ObjectId();
+            insertIds.add(insertId);
+            bulkOps.upsert(changedChecksum(component), upsertUpdate(component, insertId));
+        });
+
+        // writes are indexed in the order they were added: inserts, updates, then the guarded upserts
+        int firstGuarded = newComponents.size() + changedComponents.size();
+        boolean[] failed = new boolean[firstGuarded + expectedUnchangedComponents.size()];
+        BulkWriteResult bulkResult;
+        try {
+            bulkResult = bulkOps.execute();
+        } catch (BulkOperationException e) {
+            // an unordered bulk applies every other write, only inserts and guarded upserts are expected to collide
+            for (BulkWriteError error : e.getErrors()) {
+                boolean insert = error.getIndex() < newComponents.size();
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY
+                        || !insert && error.getIndex() < firstGuarded) {
+                    throw e;
+                }
+                failed[error.getIndex()] = true;
+            }
+            bulkResult = e.getResult();
+        }
+        Set<Integer> upserted = new HashSet<>();
+        bulkResult.getUpserts().forEach(upsert -> upserted.add(upsert.getIndex()));
+
+        List<ComponentAndDependency> notInserted = new ArrayList<>();
+        List<DependencyChange> changes = new ArrayList<>(newComponents.size() + changedComponents.size());
+        for (int i = 0; i < newComponents.size(); i++) {
+            ComponentAndDependency component = newComponents.get(i);
+            if (failed[i]) {
+                component.setId(null);
+                notInserted.add(component);
+            } else {
+                changes.add(change(component, null, null));
+            }
+        }
+        changedComponents.forEach(component -> {
+            ComponentAndDependency previous = previousById.get(component.getId());
+            changes.add(previous == null
+                    ? change(component, null, null)
+                    : change(component, previous.getChecksum(), nullToEmpty(previous.getDependencies())));
+        });
+
+        List<UpsertResult> expectedUnchangedResults = new ArrayList<>(expectedUnchangedComponents.size());
+        for (int i = 0; i < expectedUnchangedComponents.size(); i++) {
+            ComponentAndDependency component = expectedUnchangedComponents.get(i);
+            if (failed[firstGuarded + i]) {
+                expectedUnchangedResults.add(UpsertResult.UNCHANGED);
+                continue;
+            }
+            if (upserted.contains(firstGuarded + i)) {
+                component.setId(insertIds.get(i).toHexString());
+                expectedUnchangedResults.add(UpsertResult.INSERTED);
+            } else {
+                // another writer changed the component, rare enough for one lookup of the id the history references
+                ComponentAndDependency stored = findChecksumByComponentIdAndBranch(component.getComponentId(),
+                        component.getBranch());
+                component.setId(stored == null ? null : stored.getId());
+                expectedUnchangedResults.add(UpsertResult.UPDATED);
+            }
+            if (component.getId() != null) {
+                // the previous state is unknown, the history gets a checkpoint
+                changes.add(change(component, null, null));
+            }
+        }
+        dependencyHistoryService.recordAll(changes);
+        return new BulkSaveResult(notInserted, expectedUnchangedResults);
+    }
+
+    /**
+     * Inserts or updates the component identified by componentId + branch in a single findAndModify. The filter only
+     * matches when the stored checksum differs, so an unchanged upload writes nothing: its upsert attempt collides with
+     * the existing document on the unique componentId + branch index and is reported as {@link UpsertResult#UNCHANGED}.
+     * A collision with a different stored checksum means a concurrent upload inserted the component first, Mongo does
+     * not retry such an upsert itself, so it is retried here and then updates the inserted component.
+     * Only a real change ships the previous dependencies back, they are diffed into the dependency history. The id,
+     * createdAt and, for unchanged uploads, lastUpdatedAt of the component are set to the stored ones.
+     */
+    public UpsertResult upsertComponent(ComponentAndDependency component) {
+        Query query = changedChecksum(component);
+        query.fields().include("_id", "checksum", "dependencies", PACKED_DEPENDENCIES, "createdAt");
+
+        registerArtefacts(component.getDependencies());
+
+        // the _id of an inserted document is chosen here, so the history can reference it without another read
+        ObjectId insertId = new ObjectId();
+        Update update = upsertUpdate(component, insertId);
+
+        ComponentAndDependency previous;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                previous = mongoTemplate.findAndModify(query, update,
+                        FindAndModifyOptions.options().upsert(true).returnNew(false), ComponentAndDependency.class);
+                break;
+            } catch (DuplicateKeyException e) {
+                // read only, an unchanged upload still writes nothing
+                Query storedQuery = Query.query(Criteria.where("componentId").is(component.getComponentId())
+                        .and("branch").is(component.getBranch()));
+                storedQuery.fields().include("_id", "checksum", "createdAt", "lastUpdatedAt");
+                ComponentAndDependency stored = mongoTemplate.findOne(storedQuery, ComponentAndDependency.class);
+                if (stored != null && Objects.equals(stored.getChecksum(), component.getChecksum())) {
+                    component.setId(stored.getId());
+                    component.setCreatedAt(stored.getCreatedAt());
+                    component.setLastUpdatedAt(stored.getLastUpdatedAt());
+                    return UpsertResult.UNCHANGED;
+                }
+                // inserted concurrently with other dependencies, the next attempt updates it
+                if (attempt == MAX_UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+
+        if (previous == null) {
+            component.setId(insertId.toHexString());
+            dependencyHistoryService.record(change(component, null, null));
+            return UpsertResult.INSERTED;
+        }
+        component.setId(previous.getId());
+        component.setCreatedAt(previous.getCreatedAt());
+        dependencyHistoryService.record(change(component, previous.getChecksum(), nullToEmpty(previous.getDependencies())));
+        return UpsertResult.UPDATED;
+    }
+
+    public ComponentAndDependency findChecksumByComponentIdAndBranch(String componentId, String branch) {
+        Query query = Query.query(Criteria.where("componentId").is(componentId).and("branch").is(branch));
+        query.fields().include("componentId", "branch", "checksum");
+        return mongoTemplate.findOne(query, ComponentAndDependency.class);
+    }
+
+    /**
+     * Stages one chunk of dependencies of an NDJSON upload, they become visible on
+     * {@link #commitStagedDependencies(String, ComponentAndDependency, String)}.
+     */
+    public void stageDependencies(String uploadId, int sequence, List<Dependency> dependencies) {
+        registerArtefacts(dependencies);
+        mongoTemplate.insert(StagedDependencies.builder()
+                .uploadId(uploadId)
+                .sequence(sequence)
+                .dependencies(dependencies)
+                .stagedAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Swaps the dependencies staged by the upload into the component with a server side {@code $merge}, so they are
+     * never loaded into memory. A component without id is inserted as a whole at this point, a concurrent upload
+     * that inserted the same componentId + branch first makes the insert collide on the unique index, the upload is
+     * then committed as an update of that component instead. The history gets a server side copy as checkpoint for
+     * the same reason. The staged chunks are removed in any case.
+     */
+    public UpsertResult commitStagedDependencies(String uploadId, ComponentAndDependency component,
+                                                 String previousChecksum) {
+        try {
+            boolean insert = component.getId() == null;
+            if (insert) {
+                component.setId(new ObjectId().toHexString());
+                try {
+                    mergeStagedDependencies(uploadId, component, true);
+                    dependencyHistoryService.recordCheckpointFromComponent(component.getId(), null,
+                            component.getLastUpdatedAt());
+                    return UpsertResult.INSERTED;
+                } catch (DuplicateKeyException e) {
+                    ComponentAndDependency existing = findChecksumByComponentIdAndBranch(component.getComponentId(),
+                            component.getBranch());
+                    if (existing == null) {
+                        throw e;
+                    }
+                    component.setId(existing.getId());
+                    if (Objects.equals(existing.getChecksum(), component.getChecksum())) {
+                        return UpsertResult.UNCHANGED;
+                    }
+                    previousChecksum = existing.getChecksum();
+                }
+            }
+            mergeStagedDependencies(uploadId, component, false);
+            dependencyHistoryService.recordCheckpointFromComponent(component.getId(), previousChecksum,
+                    component.getLastUpdatedAt());
+            return UpsertResult.UPDATED;
+        } finally {
+            discardStagedDependencies(uploadId);
+        }
+    }
+
+    public void discardStagedDependencies(String uploadId) {
+        mongoTemplate.remove(Query.query(Criteria.where("uploadId").is(uploadId)), StagedDependencies.class);
+    }
+
+    private void mergeStagedDependencies(String uploadId, ComponentAndDependency component, boolean insert) {
+        // an inserted component gets all its fields, an existing one only its dependencies, checksum and lastUpdatedAt
+        Document fields = new Document();
+        if (insert) {
+            List<Dependency> dependencies = component.getDependencies();
+            component.setDependencies(null);
+            mongoTemplate.getConverter().write(component, fields);
+            component.setDependencies(dependencies);
+        }
+        fields.append("_id", new ObjectId(component.getId()))
+                .append("checksum", component.getChecksum())
+                .append("lastUpdatedAt", Date.from(component.getLastUpdatedAt()));
+
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("uploadId", uploadId)),
+                new Document("$sort", new Document("sequence", 1)),
+                // an upload without dependencies stages one empty chunk
+                new Document("$unwind", new Document("path", "$dependencies").append("preserveNullAndEmptyArrays", true)),
+                new Document("$group", new Document("_id", null).append("dependencies", new Document("$push", "$dependencies"))),
+                new Document("$replaceWith", new Document("$mergeObjects", List.of(
+                        new Document("$literal", fields),
+                        new Document("dependencies", new Document("$filter", new Document("input", "$dependencies")
+                                .append("cond", new Document("$ne", List.of("$$this", null)))))))),
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(ComponentAndDependency.class))
+                        .append("on", "_id")
+                        .append("whenMatched", List.of(
+                                new Document("$set", new Document("dependencies", "$$new.dependencies")
+                                        .append("checksum", "$$new.checksum")
+                                        .append("lastUpdatedAt", "$$new.lastUpdatedAt")),
+                                new Document("$unset", List.of(PACKED_DEPENDENCIES, DEPENDENCY_COUNT, FACET_DEPENDENCIES))))
+                        .append("whenNotMatched", insert ? "insert" : "discard")));
+        // through execute, so a collision on the componentId + branch index surfaces as DuplicateKeyException
+        mongoTemplate.execute(StagedDependencies.class, collection -> {
+            collection.aggregate(pipeline).allowDiskUse(true).toCollection();
+            return null;
+        });
+    }
+
+    private static Query changedChecksum(ComponentAndDependency component) {
+        return Query.query(Criteria.where("componentId").is(component.getComponentId())
+                .and("branch").is(component.getBranch())
+                .and("checksum").ne(component.getChecksum()));
+    }
+
+    private static Update upsertUpdate(ComponentAndDependency component, ObjectId insertId) {
+        return hot(new Update())
+                .set("dependencies", component.getDependencies())
+                .set("checksum", component.getChecksum())
+                .set("lastUpdatedAt", component.getLastUpdatedAt())
+                .setOnInsert("metadata", component.getMetadata())
+                .setOnInsert("compiler", component.getCompiler())
+                .setOnInsert("runtimeInfo", component.getRuntimeInfo())
+                .setOnInsert("language", component.getLanguage())
+                .setOnInsert("buildManager", component.getBuildManager())
+                .setOnInsert("createdAt", component.getCreatedAt())
+                .setOnInsert("_id", insertId);
+    }
+
+    private static DependencyChange change(ComponentAndDependency component, String previousChecksum,
+                                           List<Dependency> previousDependencies) {
+        return new DependencyChange(component.getId(), component.getComponentId(), component.getBranch(),
+                previousChecksum, previousDependencies, component.getChecksum(), component.getDependencies(),
+                component.getLastUpdatedAt());
+    }
+
+    // a component that gets new dependencies is hot again, the compactor may pack it later
+    private static Update hot(Update update) {
+        return update.unset(PACKED_DEPENDENCIES).unset(DEPENDENCY_COUNT).unset(FACET_DEPENDENCIES);
+    }
+
+    private void registerArtefacts(List<Dependency> dependencies) {
+        if (dependencies != null && !dependencies.isEmpty()) {
+            artefactDictionary.register(dependencies.stream().map(Dependency::getArtefact).distinct().toList());
+        }
+    }
+
+    private static List<Dependency> nullToEmpty(List<Dependency> dependencies) {
+        return dependencies == null ? List.of() : dependencies;
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
 }
@@ -0,0 +1,257 @@
+package org.akj.test.tracker.domain.component.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.model.DependencyHistory;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Records dependency changes of components as compact deltas in {@code component_dependency_history} and rebuilds
+ * the dependency set of a component at any past instant.
+ */
+@Service
+@Slf4j
+public class DependencyHistoryService {
+    public static final String COLLECTION_NAME = "component_dependency_history";
+    // attempts to allocate a sequence when concurrent writers of the same component collide
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    private final int checkpointInterval;
+
+    public DependencyHistoryService(MongoTemplate mongoTemplate,
+                                    @Value("${tracker.history.checkpoint-interval:20}") int checkpointInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * A checksum change of one component. {@code previousDependencies} is null when the previous state is unknown
+     * (e.g. the component was just inserted), the change is then recorded as a checkpoint.
+     */
+    public record DependencyChange(String componentRef, String componentId, String branch,
+                                   String previousChecksum, List<Dependency> previousDependencies,
+                                   String checksum, List<Dependency> dependencies, Instant recordedAt) {
+    }
+
+    public record DependencySnapshot(String componentRef, String checksum, Instant recordedAt,
+                                     List<Dependency> dependencies) {
+    }
+
+    public void record(DependencyChange change) {
+        recordAll(List.of(change));
+    }
+
+    /**
+     * Two round trips for any number of changes: one for the last sequences, one unordered insert. The unique
+     * componentRef + sequence index rejects an entry whose sequence a concurrent writer took first, such changes are
+     * retried with a fresh sequence. They are recorded as checkpoints then, their delta was computed against a
+     * previous state that is no longer the one of the entry before them.
+     */
+    public void recordAll(Collection<DependencyChange> changes) {
+        List<DependencyChange> pending = new ArrayList<>(changes);
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            if (attempt > MAX_ATTEMPTS) {
+                throw new IllegalStateException("Could not allocate history sequences for " + pending.size()
+                        + " changes after " + MAX_ATTEMPTS + " attempts");
+            }
+            Map<String, Long> lastSequences = findLastSequences(pending.stream().map(DependencyChange::componentRef).toList());
+
+            List<DependencyHistory> entries = new ArrayList<>(pending.size());
+            for (DependencyChange change : pending) {
+                long sequence = lastSequences.getOrDefault(change.componentRef(), 0L) + 1;
+                lastSequences.put(change.componentRef(), sequence);
+                entries.add(toEntry(change, sequence));
+            }
+
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DependencyHistory.class);
+            bulkOps.insert(entries);
+            List<DependencyChange> collided = new ArrayList<>();
+            try {
+                bulkOps.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                        throw e;
+                    }
+                    collided.add(asCheckpoint(pending.get(error.getIndex())));
+                }
+            }
+            log.debug("Recorded {} dependency history entries, {} to retry", entries.size() - collided.size(),
+                    collided.size());
+            pending = collided;
+        }
+    }
+
+    /**
+     * Records a checkpoint with the dependencies currently stored on the component, copied server side so large
+     * dependency sets (NDJSON uploads) are never loaded into memory.
+     */
+    public void recordCheckpointFromComponent(String componentRef, String previousChecksum, Instant recordedAt) {
+        for (int attempt = 1; ; attempt++) {
+            long sequence = findLastSequences(List.of(componentRef)).getOrDefault(componentRef, 0L) + 1;
+            try {
+                copyCheckpointFromComponent(componentRef, previousChecksum, recordedAt, sequence);
+                return;
+            } catch (DuplicateKeyException e) {
+                // a concurrent writer took the sequence
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void copyCheckpointFromComponent(String componentRef, String previousChecksum, Instant recordedAt,
+                                             long sequence) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("_id", new ObjectId(componentRef))),
+                new Document("$project", new Document("_id", 0)
+                        .append("componentRef", new Document("$literal", componentRef))
+                        .append("componentId", 1)
+                        .append("branch", 1)
+                        .append("sequence", new Document("$literal", sequence))
+                        .append("previousChecksum", new Document("$literal", previousChecksum))
+                        .append("checksum", 1)
+                        .append("checkpoint", new Document("$literal", true))
+                        .append("dependencies", 1)
+                        .append("added", new Document("$literal", List.of()))
+                        .append("removed", new Document("$literal", List.of()))
+                        .append("changed", new Document("$literal", List.of()))
+                        .append("recordedAt", new Document("$literal", Date.from(recordedAt)))),
+                new Document("$merge", new Document("into", COLLECTION_NAME).append("whenNotMatched", "insert")));
+        // through execute, so a collision on the componentRef + sequence index surfaces as DuplicateKeyException
+        mongoTemplate.execute(ComponentAndDependency.class, collection -> {
+            collection.aggregate(pipeline).toCollection();
+            return null;
+        });
+    }
+
+    /**
+     * Rebuilds the dependency set of a component as it was at the given instant, empty if nothing was recorded
+     * for the component at or before that instant.
+     */
+    public Optional<DependencySnapshot> rebuild(String componentRef, Instant at) {
+        Query checkpointQuery = Query.query(Criteria.where("componentRef").is(componentRef)
+                        .and("checkpoint").is(true)
+                        .and("recordedAt").lte(at))
+                .with(Sort.by(Sort.Direction.DESC, "sequence"))
+                .limit(1);
+        DependencyHistory checkpoint = mongoTemplate.findOne(checkpointQuery, DependencyHistory.class);
+        if (checkpoint == null) {
+            return Optional.empty();
+        }
+
+        Query deltaQuery = Query.query(Criteria.where("componentRef").is(componentRef)
+                        .and("sequence").gt(checkpoint.getSequence())
+                        .and("recordedAt").lte(at))
+                .with(Sort.by(Sort.Direction.ASC, "sequence"));
+        List<DependencyHistory> deltas = mongoTemplate.find(deltaQuery, DependencyHistory.class);
+        log.debug("Rebuilding component {} at {} from checkpoint {} and {} deltas",
+                componentRef, at, checkpoint.getSequence(), deltas.size());
+        return Optional.of(replay(checkpoint, deltas));
+    }
+
+    DependencyHistory toEntry(DependencyChange change, long sequence) {
+        DependencyHistory.DependencyHistoryBuilder entry = DependencyHistory.builder()
+                .componentRef(change.componentRef())
+                .componentId(change.componentId())
+                .branch(change.branch())
+                .sequence(sequence)
+                .previousChecksum(change.previousChecksum())
+                .checksum(change.checksum())
+                .recordedAt(change.recordedAt());
+
+        boolean checkpoint = change.previousDependencies() == null || (sequence - 1) % checkpointInterval == 0;
+        if (change.previousDependencies() != null) {
+            diff(change.previousDependencies(), change.dependencies(), entry);
+        }
+        if (checkpoint) {
+            entry.checkpoint(true).dependencies(nullToEmpty(change.dependencies()));
+        }
+        return entry.build();
+    }
+
+    static void diff(List<Dependency> previous, List<Dependency> current, DependencyHistory.DependencyHistoryBuilder entry) {
+        Map<String, Dependency> previousByKey = byKey(previous);
+        List<Dependency> added = new ArrayList<>();
+        List<Dependency> changed = new ArrayList<>();
+        for (Map.Entry<String, Dependency> dependency : byKey(current).entrySet()) {
+            Dependency old = previousByKey.remove(dependency.getKey());
+            if (old == null) {
+                added.add(dependency.getValue());
+            } else if (!Objects.equals(old.getVersion(), dependency.getValue().getVersion())) {
+                changed.add(dependency.getValue());
+            }
+        }
+        entry.added(added).changed(changed).removed(new ArrayList<>(previousByKey.values()));
+    }
+
+    static DependencySnapshot replay(DependencyHistory checkpoint, List<DependencyHistory> deltas) {
+        Map<String, Dependency> state = byKey(checkpoint.getDependencies());
+        DependencyHistory last = checkpoint;
+        for (DependencyHistory delta : deltas) {
+            nullToEmpty(delta.getRemoved()).forEach(dependency -> state.remove(key(dependency)));
+            nullToEmpty(delta.getChanged()).forEach(dependency -> state.put(key(dependency), dependency));
+            nullToEmpty(delta.getAdded()).forEach(dependency -> state.put(key(dependency), dependency));
+            last = delta;
+        }
+        return new DependencySnapshot(checkpoint.getComponentRef(), last.getChecksum(), last.getRecordedAt(),
+                new ArrayList<>(state.values()));
+    }
+
+    private static DependencyChange asCheckpoint(DependencyChange change) {
+        return new DependencyChange(change.componentRef(), change.componentId(), change.branch(),
+                change.previousChecksum(), null, change.checksum(), change.dependencies(), change.recordedAt());
+    }
+
+    private Map<String, Long> findLastSequences(List<String> componentRefs) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("componentRef").in(componentRefs)),
+                Aggregation.group("componentRef").max("sequence").as("sequence"));
+        Map<String, Long> lastSequences = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, COLLECTION_NAME, Document.class).getMappedResults()
+                .forEach(doc -> lastSequences.put(doc.getString("_id"), ((Number) doc.get("sequence")).longValue()));
+        return lastSequences;
+    }
+
+    // a dependency is identified by artefact + type, a different version of it counts as a change
+    private static Map<String, Dependency> byKey(List<Dependency> dependencies) {
+        Map<String, Dependency> byKey = new LinkedHashMap<>();
+        nullToEmpty(dependencies).forEach(dependency -> byKey.put(key(dependency), dependency));
+        return byKey;
+    }
+
+    private static String key(Dependency dependency) {
+        return dependency.getArtefact() + "|" + dependency.getType();
+    }
+
+    private static List<Dependency> nullToEmpty(List<Dependency> dependencies) {
+        return dependencies == null ? List.of() : dependencies;
+    }
+}
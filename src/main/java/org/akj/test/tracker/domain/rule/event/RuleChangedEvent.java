@@ -0,0 +1,9 @@
+package org.akj.test.tracker.domain.rule.event;
+
+import java.time.Instant;
+
+/**
+ * Published after a rule was added or updated.
+ */
+public record RuleChangedEvent(String ruleId, Instant changedAt) {
+}
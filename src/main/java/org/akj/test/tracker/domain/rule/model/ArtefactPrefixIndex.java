@@ -0,0 +1,116 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable character trie over artefact prefixes. A value registered under {@code "org.springframework"} matches
+ * every artefact starting with it, the same as {@code artefact.startsWith(prefix)}. Looking up an artefact walks
+ * its characters once, so the cost depends on the artefact length and not on how many prefixes are registered.
+ */
+public final class ArtefactPrefixIndex<T> {
+    private static final ArtefactPrefixIndex<?> EMPTY = new ArtefactPrefixIndex<>(new Node<>(), 0);
+
+    private final Node<T> root;
+    private final int size;
+
+    private ArtefactPrefixIndex(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ArtefactPrefixIndex<T> empty() {
+        return (ArtefactPrefixIndex<T>) EMPTY;
+    }
+
+    /**
+     * Builds the index, values whose prefix is null are left out since they can't match any artefact.
+     */
+    public static <T> ArtefactPrefixIndex<T> of(Collection<T> values, Function<T, String> prefixOf) {
+        Node<T> root = new Node<>();
+        int size = 0;
+        for (T value : values) {
+            String prefix = prefixOf.apply(value);
+            if (prefix == null) {
+                continue;
+            }
+            Node<T> node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.childOrCreate(prefix.charAt(i));
+            }
+            node.values.add(value);
+            size++;
+        }
+        return size == 0 ? empty() : new ArtefactPrefixIndex<>(root, size);
+    }
+
+    /**
+     * Passes every value whose prefix the artefact starts with to the consumer, shorter prefixes first.
+     */
+    public void forEachMatch(String artefact, Consumer<T> consumer) {
+        if (artefact == null || size == 0) {
+            return;
+        }
+        Node<T> node = root;
+        node.values.forEach(consumer);
+        for (int i = 0; i < artefact.length(); i++) {
+            node = node.child(artefact.charAt(i));
+            if (node == null) {
+                return;
+            }
+            node.values.forEach(consumer);
+        }
+    }
+
+    public List<T> matches(String artefact) {
+        List<T> matches = new ArrayList<>();
+        forEachMatch(artefact, matches::add);
+        return matches;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+        // artefact prefixes branch little, a linear scan over a small array beats hashing boxed characters
+        private char[] keys = new char[0];
+        private Node<T>[] children = newChildren(0);
+        private final List<T> values = new ArrayList<>(1);
+
+        private Node<T> child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node<T> childOrCreate(char key) {
+            Node<T> child = child(key);
+            if (child == null) {
+                child = new Node<>();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newChildren(int length) {
+            return (Node<T>[]) new Node[length];
+        }
+    }
+}
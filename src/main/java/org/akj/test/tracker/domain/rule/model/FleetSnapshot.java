@@ -0,0 +1,206 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.common.util.VersionComparator;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact, immutable in-memory copy of the runtime and dependencies of every component, used to predict what an
+ * unsaved rule would flag without touching Mongo. Artefacts and versions are stored once in lookup tables and
+ * referenced by index, dependencies of all components share flat int arrays. Evaluating a rule resolves its artefact
+ * prefix and version comparison once per distinct artefact and version instead of once per dependency.
+ */
+public final class FleetSnapshot {
+    public static final FleetSnapshot EMPTY = new Builder().build();
+    private static final int NONE = -1;
+    // violating dependencies listed per sample component
+    private static final int SAMPLE_DEPENDENCIES = 5;
+
+    private final Instant takenAt;
+    private final String[] artefacts;
+    private final String[] versions;
+    private final String[] ids;
+    private final String[] names;
+    private final String[] eimIds;
+    private final ProgramLanguage[] languages;
+    private final int[] runtimeVersions;
+    // dependencies of component i are at dependencyOffsets[i] until dependencyOffsets[i + 1]
+    private final int[] dependencyOffsets;
+    private final int[] dependencyArtefacts;
+    private final int[] dependencyVersions;
+
+    private FleetSnapshot(Builder builder) {
+        this.takenAt = builder.takenAt;
+        this.artefacts = builder.artefacts.toArray(String[]::new);
+        this.versions = builder.versions.toArray(String[]::new);
+        this.ids = builder.ids.toArray(String[]::new);
+        this.names = builder.names.toArray(String[]::new);
+        this.eimIds = builder.eimIds.toArray(String[]::new);
+        this.languages = builder.languages.toArray(ProgramLanguage[]::new);
+        this.runtimeVersions = Arrays.copyOf(builder.runtimeVersions, builder.size);
+        this.dependencyOffsets = Arrays.copyOf(builder.dependencyOffsets, builder.size + 1);
+        this.dependencyArtefacts = Arrays.copyOf(builder.dependencyArtefacts, builder.dependencyCount);
+        this.dependencyVersions = Arrays.copyOf(builder.dependencyVersions, builder.dependencyCount);
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public record Sample(String id, String name, String eimId, String runtimeVersion, int dependencyViolations,
+                         List<String> dependencies) {
+    }
+
+    public record Simulation(int evaluated, int violating, int runtimeViolations, int dependencyViolations,
+                             Map<String, Integer> byLanguage, Map<String, Integer> byEim, List<Sample> samples) {
+    }
+
+    /**
+     * Evaluates the rule against every component of its language the same way a scan does: a runtime target flags
+     * components whose runtime version is missing or not compliant, a dependency target flags components with a
+     * non-compliant dependency whose artefact starts with the target artefact.
+     */
+    public Simulation simulate(RuleSetSnapshot.CompiledRule compiledRule, ProgramLanguage language, int sampleSize) {
+        RuntimeTarget runtimeTarget = compiledRule.runtimeTarget();
+        DependencyTarget dependencyTarget = compiledRule.dependencyTarget();
+
+        // resolved once per distinct artefact and version
+        boolean[] matchingArtefacts = new boolean[artefacts.length];
+        if (dependencyTarget != null && dependencyTarget.getArtefact() != null) {
+            for (int i = 0; i < artefacts.length; i++) {
+                matchingArtefacts[i] = artefacts[i] != null && artefacts[i].startsWith(dependencyTarget.getArtefact());
+            }
+        }
+        // 0 = not evaluated yet, 1 = compliant, 2 = violating
+        byte[] runtimeCompliance = new byte[versions.length];
+        byte[] dependencyCompliance = new byte[versions.length];
+
+        int evaluated = 0;
+        int violating = 0;
+        int runtimeViolations = 0;
+        int dependencyViolations = 0;
+        Map<String, Integer> byLanguage = new TreeMap<>();
+        Map<String, Integer> byEim = new TreeMap<>();
+        List<Sample> samples = new ArrayList<>(sampleSize);
+        for (int component = 0; component < ids.length; component++) {
+            if (languages[component] != language) {
+                continue;
+            }
+            evaluated++;
+
+            boolean runtimeViolation = runtimeTarget != null && (runtimeVersions[component] == NONE
+                    || !isCompliant(runtimeCompliance, runtimeVersions[component], runtimeTarget.getVersion(),
+                    runtimeTarget.getOperator()));
+            int dependencyViolationCount = 0;
+            List<String> violatingDependencies = samples.size() < sampleSize ? new ArrayList<>() : null;
+            if (dependencyTarget != null) {
+                for (int d = dependencyOffsets[component]; d < dependencyOffsets[component + 1]; d++) {
+                    if (matchingArtefacts[dependencyArtefacts[d]] && !isCompliant(dependencyCompliance,
+                            dependencyVersions[d], dependencyTarget.getVersion(), dependencyTarget.getOperator())) {
+                        dependencyViolationCount++;
+                        if (violatingDependencies != null && violatingDependencies.size() < SAMPLE_DEPENDENCIES) {
+                            violatingDependencies.add(artefacts[dependencyArtefacts[d]] + ":" + versions[dependencyVersions[d]]);
+                        }
+                    }
+                }
+            }
+            if (!runtimeViolation && dependencyViolationCount == 0) {
+                continue;
+            }
+
+            violating++;
+            runtimeViolations += runtimeViolation ? 1 : 0;
+            dependencyViolations += dependencyViolationCount;
+            byLanguage.merge(languages[component].name(), 1, Integer::sum);
+            byEim.merge(eimIds[component] == null ? "unknown" : eimIds[component], 1, Integer::sum);
+            if (violatingDependencies != null) {
+                samples.add(new Sample(ids[component], names[component], eimIds[component],
+                        runtimeViolation && runtimeVersions[component] != NONE ? versions[runtimeVersions[component]] : null,
+                        dependencyViolationCount, violatingDependencies));
+            }
+        }
+        return new Simulation(evaluated, violating, runtimeViolations, dependencyViolations, byLanguage, byEim, samples);
+    }
+
+    private boolean isCompliant(byte[] cache, int version, String targetVersion, VersionOperator operator) {
+        if (cache[version] == 0) {
+            cache[version] = VersionComparator.isVersionCompliant(versions[version], targetVersion, operator)
+                    ? (byte) 1 : (byte) 2;
+        }
+        return cache[version] == 1;
+    }
+
+    public static final class Builder {
+        private final Instant takenAt = Instant.now();
+        private final List<String> artefacts = new ArrayList<>();
+        private final Map<String, Integer> artefactIndexes = new HashMap<>();
+        private final List<String> versions = new ArrayList<>();
+        private final Map<String, Integer> versionIndexes = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<String> eimIds = new ArrayList<>();
+        private final List<ProgramLanguage> languages = new ArrayList<>();
+        private int[] runtimeVersions = new int[64];
+        private int[] dependencyOffsets = new int[65];
+        private int[] dependencyArtefacts = new int[1024];
+        private int[] dependencyVersions = new int[1024];
+        private int size;
+        private int dependencyCount;
+
+        public Builder add(ComponentAndDependency component) {
+            if (size == runtimeVersions.length) {
+                runtimeVersions = Arrays.copyOf(runtimeVersions, size * 2);
+                dependencyOffsets = Arrays.copyOf(dependencyOffsets, size * 2 + 1);
+            }
+            ids.add(component.getId());
+            names.add(component.getMetadata() == null ? null : component.getMetadata().getName());
+            eimIds.add(component.getMetadata() == null ? null : component.getMetadata().getEimId());
+            languages.add(component.getLanguage());
+            runtimeVersions[size] = component.getRuntimeInfo() == null ? NONE
+                    : indexOf(component.getRuntimeInfo().getVersion(), versions, versionIndexes);
+
+            List<Dependency> dependencies = component.getDependencies() == null ? List.of() : component.getDependencies();
+            if (dependencyCount + dependencies.size() > dependencyArtefacts.length) {
+                int capacity = Math.max(dependencyArtefacts.length * 2, dependencyCount + dependencies.size());
+                dependencyArtefacts = Arrays.copyOf(dependencyArtefacts, capacity);
+                dependencyVersions = Arrays.copyOf(dependencyVersions, capacity);
+            }
+            for (Dependency dependency : dependencies) {
+                dependencyArtefacts[dependencyCount] = indexOf(dependency.getArtefact(), artefacts, artefactIndexes);
+                dependencyVersions[dependencyCount] = indexOf(dependency.getVersion(), versions, versionIndexes);
+                dependencyCount++;
+            }
+            size++;
+            dependencyOffsets[size] = dependencyCount;
+            return this;
+        }
+
+        public FleetSnapshot build() {
+            return new FleetSnapshot(this);
+        }
+
+        // null gets a table entry like any other value, so dependency rows always point to a valid slot
+        private static int indexOf(String value, List<String> table, Map<String, Integer> indexes) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = table.size();
+                table.add(value);
+                indexes.put(value, index);
+            }
+            return index;
+        }
+    }
+}
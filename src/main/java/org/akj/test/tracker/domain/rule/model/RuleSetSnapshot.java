@@ -0,0 +1,93 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable view of all scannable (ACTIVE and DRAFT) rules, taken once per scan run and shared by all scan workers
+ * without locking. Rules are grouped by language, their targets are resolved up front and dependency rules are
+ * indexed by artefact prefix. The version is derived from the rule contents, two snapshots of an unchanged rule set
+ * have the same version.
+ * <p>
+ * The contained {@link EverGreenRule} instances must be treated as read-only.
+ */
+public final class RuleSetSnapshot {
+    public static final RuleSetSnapshot EMPTY = new RuleSetSnapshot("", Instant.EPOCH, Map.of());
+
+    private final String version;
+    private final Instant loadedAt;
+    private final Map<ProgramLanguage, List<CompiledRule>> rulesByLanguage;
+    private final Map<ProgramLanguage, ArtefactPrefixIndex<CompiledRule>> dependencyRulesByLanguage;
+
+    public RuleSetSnapshot(String version, Instant loadedAt, Map<ProgramLanguage, List<CompiledRule>> rulesByLanguage) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        Map<ProgramLanguage, List<CompiledRule>> copy = new EnumMap<>(ProgramLanguage.class);
+        Map<ProgramLanguage, ArtefactPrefixIndex<CompiledRule>> indexes = new EnumMap<>(ProgramLanguage.class);
+        rulesByLanguage.forEach((language, rules) -> {
+            copy.put(language, List.copyOf(rules));
+            indexes.put(language, ArtefactPrefixIndex.of(rules,
+                    rule -> rule.dependencyTarget() == null ? null : rule.dependencyTarget().getArtefact()));
+        });
+        this.rulesByLanguage = Collections.unmodifiableMap(copy);
+        this.dependencyRulesByLanguage = Collections.unmodifiableMap(indexes);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public List<CompiledRule> rulesFor(ProgramLanguage language) {
+        return language == null ? List.of() : rulesByLanguage.getOrDefault(language, List.of());
+    }
+
+    /**
+     * Dependency rules of the language indexed by their target artefact prefix.
+     */
+    public ArtefactPrefixIndex<CompiledRule> dependencyRulesFor(ProgramLanguage language) {
+        return language == null ? ArtefactPrefixIndex.empty()
+                : dependencyRulesByLanguage.getOrDefault(language, ArtefactPrefixIndex.empty());
+    }
+
+    public Optional<CompiledRule> findRule(String ruleId) {
+        return rulesByLanguage.values().stream()
+                .flatMap(List::stream)
+                .filter(rule -> Objects.equals(rule.id(), ruleId))
+                .findFirst();
+    }
+
+    public int size() {
+        return rulesByLanguage.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * A rule with its targets resolved, so scans don't walk ruleDefinition.target for every component.
+     */
+    public record CompiledRule(EverGreenRule rule, RuntimeTarget runtimeTarget, DependencyTarget dependencyTarget) {
+        public static CompiledRule of(EverGreenRule rule) {
+            Target target = rule.getRuleDefinition() == null ? null : rule.getRuleDefinition().getTarget();
+            return new CompiledRule(rule,
+                    target == null ? null : target.getRuntimeTarget(),
+                    target == null ? null : target.getDependencyTarget());
+        }
+
+        public String id() {
+            return rule.getId();
+        }
+
+        public RuleStatus status() {
+            return rule.getStatus();
+        }
+    }
+}
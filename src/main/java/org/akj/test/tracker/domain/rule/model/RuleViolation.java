@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
@@ -11,6 +12,9 @@ import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "rule_violations")
+// one violation per component and rule, concurrent scans of a component upsert on it. The unique index is built by
+// UniqueIndexMigration once existing duplicates are removed
+@CompoundIndex(name = "ruleId_componentId", def = "{'ruleId': 1, 'componentId': 1}")
 @Data
 @Builder
 @NoArgsConstructor
@@ -39,6 +43,9 @@ public class RuleViolation {
 
     private Boolean hasViolation;
 
+    // fingerprint of the state above as of the last write, a scan that ends up with the same state skips the write
+    private String fingerprint;
+
     @Builder.Default
     private String createdBy = "System";
     @Builder.Default
@@ -0,0 +1,30 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Lease on one shard of the violation scan. Only the owner scans the shard, it renews the lease while scanning and
+ * releases it when done. A lease that is not renewed expires, so the shard is taken over when its owner dies.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scan_leases")
+public class ScanLease {
+    // shard key, e.g. "3/8" for shard 3 of 8
+    @Id
+    private String id;
+    private String owner;
+    private Instant expiresAt;
+    // the shard is not claimed again before this, so replicas don't rescan a shard another one just finished
+    private Instant nextScanAt;
+    private Instant acquiredAt;
+}
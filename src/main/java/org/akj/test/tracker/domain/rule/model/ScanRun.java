@@ -0,0 +1,58 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * State of one scheduled violation scan. Components are scanned in {@code _id} order and the cursor is the last
+ * {@code _id} up to which every component has been scanned, so a run interrupted by a restart resumes after it. Each
+ * shard of the scan has its own runs. Finished runs expire after a week, runs still RUNNING are kept so they can be
+ * resumed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scan_runs")
+@CompoundIndex(name = "shard_status_startedAt", def = "{'shard': 1, 'status': 1, 'startedAt': -1}")
+public class ScanRun {
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    // interrupted and not resumable, e.g. because the rule set changed in between
+    public static final String ABANDONED = "ABANDONED";
+
+    @Id
+    private String batchId;
+    private String status;
+    // shard key the run covers, see ScanLease
+    private String shard;
+    // replica that ran the run last
+    private String owner;
+    private boolean fullScan;
+    private String ruleSetVersion;
+    // incremental runs scan the components updated since this instant, null for full scans
+    private Instant updatedSince;
+    // becomes the next watermark once the run completes
+    private Instant scanStartedAt;
+    // last component _id up to which every component has been scanned
+    private String cursor;
+    private int total;
+    private int scanned;
+    private int failed;
+    private int resumeCount;
+    // start of the current attempt and the components scanned before it, for the throughput of a resumed run
+    private Instant resumedAt;
+    private int scannedBeforeResume;
+    private Instant startedAt;
+    private Instant updatedAt;
+    @Indexed(name = "finishedAt_ttl", expireAfter = "7d")
+    private Instant finishedAt;
+}
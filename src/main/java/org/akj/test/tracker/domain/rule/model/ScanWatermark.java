@@ -0,0 +1,32 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Where the last successful violation scan left off. Components updated after the watermark are re-evaluated by the
+ * next run, a different rule set version or an overdue full scan re-evaluates all components.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "scan_watermarks")
+public class ScanWatermark {
+    public static final String VIOLATION_SCAN = "evergreen-rule-violation-scan";
+
+    @Id
+    private String id;
+    // start time of the last successful run, components updated from then on are scanned by the next run
+    private Instant watermark;
+    private String ruleSetVersion;
+    private Instant lastFullScanAt;
+    private String batchId;
+    private Instant updatedAt;
+}
@@ -0,0 +1,67 @@
+package org.akj.test.tracker.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+    public static final String FACET_EXECUTOR = "facetExecutor";
+    public static final String SCAN_EXECUTOR = "scanExecutor";
+    public static final String RULE_IMPACT_EXECUTOR = "ruleImpactExecutor";
+
+    // facet aggregations fan out on virtual threads, on platform threads they keep running on the request thread
+    @Bean(FACET_EXECUTOR)
+    public TaskExecutor facetExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (!virtualThreads) {
+            return new SyncTaskExecutor();
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("facet-vt-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    // violation scan partitions, at most workers partitions are scanned at once in either thread model
+    @Bean(SCAN_EXECUTOR)
+    public TaskExecutor scanExecutor(@Value("${tracker.scan.executor.workers:8}") int workers,
+                                     @Value("${tracker.scan.executor.await-termination-seconds:60}") int awaitTerminationSeconds,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("scan-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(workers);
+            executor.setTaskTerminationTimeout(TimeUnit.SECONDS.toMillis(awaitTerminationSeconds));
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("scan-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        return executor;
+    }
+
+    // targeted scans after a rule change, kept apart from the scan executor so they neither block the request that
+    // saved the rule nor queue behind the partitions of a running full scan
+    @Bean(RULE_IMPACT_EXECUTOR)
+    public TaskExecutor ruleImpactExecutor(@Value("${tracker.scan.rule-impact.workers:2}") int workers,
+                                           @Value("${tracker.scan.executor.await-termination-seconds:60}") int awaitTerminationSeconds,
+                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // a pool with an unbounded queue, never blocks the caller unlike a concurrency limited SimpleAsyncTaskExecutor
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setVirtualThreads(virtualThreads);
+        executor.setThreadNamePrefix("rule-impact-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+        return executor;
+    }
+}
@@ -0,0 +1,28 @@
+package org.akj.test.tracker.infrastructure.config;
+
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.DependencyReadingConverter;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.DependencyWritingConverter;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(ArtefactDictionary artefactDictionary) {
+        return new MongoCustomConversions(List.of(
+                new DependencyWritingConverter(artefactDictionary),
+                new DependencyReadingConverter(artefactDictionary)));
+    }
+
+    // counts the round trips of violation scans
+    @Bean
+    public MongoClientSettingsBuilderCustomizer scanMetricsCommandListener(ScanMetrics scanMetrics) {
+        return builder -> builder.addCommandListener(scanMetrics);
+    }
+}
@@ -2,6 +2,8 @@ package org.akj.test.tracker.infrastructure.config.spring;
 
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.infrastructure.executor.IngestRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -62,6 +64,21 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(IngestRejectedException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIngestRejectedException(IngestRejectedException ex) {
+        HttpStatus status = ex.isShuttingDown() ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.TOO_MANY_REQUESTS;
+        log.warn("Upload rejected with status {}: {}", status.value(), ex.getMessage());
+
+        return ResponseEntity
+                .status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(
+                        status.value(),
+                        ex.isShuttingDown() ? "SERVICE_UNAVAILABLE" : "TOO_MANY_REQUESTS",
+                        ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleAllUncaughtException(Exception ex) {
         log.error("Uncaught exception occurred", ex);
@@ -0,0 +1,170 @@
+package org.akj.test.tracker.infrastructure.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dedicated executor for asynchronous component uploads. Work is queued in a bounded queue and rejected once the
+ * queue is full, so a burst of uploads turns into 429 responses instead of unbounded memory growth. On shutdown
+ * the queue is drained before the application context goes away.
+ * <p>
+ * With {@code tracker.ingest.executor.virtual-threads} (Java 21+) every upload runs on its own virtual thread instead
+ * of waiting for one of the few platform workers. The admission bound stays the same, workers + queue-capacity
+ * uploads may be in flight, they just all make progress while blocked on Mongo.
+ */
+@Component
+@Slf4j
+public class IngestExecutor implements DisposableBean {
+    private static final String METRIC_PREFIX = "tracker.ingest.executor";
+
+    private final ThreadPoolTaskExecutor executor;
+    private final SimpleAsyncTaskExecutor virtualExecutor;
+    private final Semaphore virtualPermits;
+    private final int maxInFlight;
+    private final Timer waitTimer;
+    private final Timer processingTimer;
+    private final Counter queueFullCounter;
+    private final Counter shutdownCounter;
+    private final long retryAfterSeconds;
+    private volatile boolean shuttingDown;
+
+    public IngestExecutor(MeterRegistry meterRegistry,
+                          @Value("${tracker.ingest.executor.workers:4}") int workers,
+                          @Value("${tracker.ingest.executor.queue-capacity:500}") int queueCapacity,
+                          @Value("${tracker.ingest.executor.await-termination-seconds:60}") int awaitTerminationSeconds,
+                          @Value("${tracker.ingest.executor.retry-after-seconds:5}") long retryAfterSeconds,
+                          @Value("${tracker.ingest.executor.virtual-threads:${spring.threads.virtual.enabled:false}}") boolean virtualThreads) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.maxInFlight = workers + queueCapacity;
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("Time an upload spent in the ingest queue before a worker picked it up")
+                .register(meterRegistry);
+        this.processingTimer = Timer.builder(METRIC_PREFIX + ".processing")
+                .description("Time a worker spent processing an upload")
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.shutdownCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .tag("reason", "shutdown")
+                .register(meterRegistry);
+
+        if (virtualThreads) {
+            this.executor = null;
+            this.virtualPermits = new Semaphore(maxInFlight);
+            this.virtualExecutor = new SimpleAsyncTaskExecutor("ingest-vt-");
+            this.virtualExecutor.setVirtualThreads(true);
+            this.virtualExecutor.setTaskTerminationTimeout(TimeUnit.SECONDS.toMillis(awaitTerminationSeconds));
+            this.virtualExecutor.setTaskDecorator(this::instrument);
+        } else {
+            this.virtualExecutor = null;
+            this.virtualPermits = null;
+            this.executor = new ThreadPoolTaskExecutor();
+            this.executor.setCorePoolSize(workers);
+            this.executor.setMaxPoolSize(workers);
+            this.executor.setQueueCapacity(queueCapacity);
+            this.executor.setThreadNamePrefix("ingest-");
+            this.executor.setWaitForTasksToCompleteOnShutdown(true);
+            this.executor.setAwaitTerminationSeconds(awaitTerminationSeconds);
+            this.executor.setTaskDecorator(this::instrument);
+            this.executor.initialize();
+        }
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", this, IngestExecutor::getQueueDepth)
+                .description("Uploads waiting for an ingest worker")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", this, IngestExecutor::getActiveCount)
+                .description("Ingest workers currently processing an upload")
+                .register(meterRegistry);
+        log.info("Ingest executor initialized, virtualThreads: {}, workers: {}, queueCapacity: {}",
+                virtualThreads, workers, queueCapacity);
+    }
+
+    public void execute(Runnable task) {
+        if (virtualExecutor != null) {
+            executeVirtual(task);
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (TaskRejectedException e) {
+            if (executor.getThreadPoolExecutor().isShutdown()) {
+                shutdownCounter.increment();
+                throw new IngestRejectedException("Ingest executor is shutting down", true, retryAfterSeconds, e);
+            }
+            queueFullCounter.increment();
+            throw new IngestRejectedException("Ingest queue is full", false, retryAfterSeconds, e);
+        }
+    }
+
+    private void executeVirtual(Runnable task) {
+        if (shuttingDown) {
+            shutdownCounter.increment();
+            throw new IngestRejectedException("Ingest executor is shutting down", true, retryAfterSeconds, null);
+        }
+        if (!virtualPermits.tryAcquire()) {
+            queueFullCounter.increment();
+            throw new IngestRejectedException("Too many uploads in flight", false, retryAfterSeconds, null);
+        }
+        try {
+            virtualExecutor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    virtualPermits.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            virtualPermits.release();
+            shutdownCounter.increment();
+            throw new IngestRejectedException("Ingest executor is shutting down", true, retryAfterSeconds, e);
+        }
+    }
+
+    public int getQueueDepth() {
+        // virtual threads never wait for a worker
+        return executor == null ? 0 : executor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor == null ? maxInFlight - virtualPermits.availablePermits() : executor.getActiveCount();
+    }
+
+    private Runnable instrument(Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                processingTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        shuttingDown = true;
+        if (virtualExecutor != null) {
+            log.info("Shutting down ingest executor, waiting for {} uploads in flight", getActiveCount());
+            // waits up to the task termination timeout for running uploads
+            virtualExecutor.close();
+            return;
+        }
+        log.info("Shutting down ingest executor, draining {} queued uploads", getQueueDepth());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,19 @@
+package org.akj.test.tracker.infrastructure.executor;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the ingest executor cannot accept more work, either because its queue is full or because the
+ * application is shutting down. The web layer turns it into 429/503 with a Retry-After header.
+ */
+@Getter
+public class IngestRejectedException extends RuntimeException {
+    private final boolean shuttingDown;
+    private final long retryAfterSeconds;
+
+    public IngestRejectedException(String message, boolean shuttingDown, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.shuttingDown = shuttingDown;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
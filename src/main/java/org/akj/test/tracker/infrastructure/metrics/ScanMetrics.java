@@ -0,0 +1,203 @@
+package org.akj.test.tracker.infrastructure.metrics;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Violation scan meters, tagged with the {@code batchId} of the scan so runs can be compared with each other through
+ * {@code /actuator/metrics/tracker.scan.*?tag=batchId:...}. A batch is finished once its run is recorded, only
+ * the meters of the most recent {@code tracker.scan.metrics.retained-batches} finished batches are kept, older ones
+ * are removed from the registry so the batch tag doesn't grow the registry without bound. Batches of runs in progress
+ * are never removed, neither are batches without runs such as {@code on-change} and {@code on-demand}.
+ * <p>
+ * Also listens to the Mongo driver's commands and counts those issued by a thread while it scans a chunk, see
+ * {@link Batch#countRoundTrips(int)}.
+ */
+@Component
+public class ScanMetrics implements CommandListener {
+    private static final String METRIC_PREFIX = "tracker.scan";
+    // meters of a removed batch are built here, a registry without registries only hands out no-op meters
+    private static final MeterRegistry DETACHED = new CompositeMeterRegistry();
+
+    private final MeterRegistry meterRegistry;
+    private final int retainedBatches;
+    private final Map<String, Batch> batches = new LinkedHashMap<>();
+    private final ThreadLocal<RoundTrips> roundTrips = new ThreadLocal<>();
+
+    public ScanMetrics(MeterRegistry meterRegistry,
+                       @Value("${tracker.scan.metrics.retained-batches:10}") int retainedBatches) {
+        this.meterRegistry = meterRegistry;
+        this.retainedBatches = retainedBatches;
+    }
+
+    public synchronized Batch batch(String batchId) {
+        Batch batch = batches.computeIfAbsent(batchId, Batch::new);
+        // a resumed run uses its batch again
+        batch.finished = false;
+        return batch;
+    }
+
+    private synchronized void finished(Batch batch) {
+        batch.finished = true;
+        long finished = batches.values().stream().filter(candidate -> candidate.finished).count();
+        Iterator<Batch> oldest = batches.values().iterator();
+        while (finished > retainedBatches && oldest.hasNext()) {
+            Batch candidate = oldest.next();
+            if (candidate.finished) {
+                candidate.remove();
+                oldest.remove();
+                finished--;
+            }
+        }
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        // the sync driver runs a command on the calling thread
+        RoundTrips current = roundTrips.get();
+        if (current != null) {
+            current.count++;
+        }
+    }
+
+    public final class Batch {
+        private final Tags tags;
+        private final List<Meter> meters = new ArrayList<>();
+        private final Map<String, Timer> ruleTimers = new ConcurrentHashMap<>();
+        private final Timer componentTimer;
+        private final Counter openedCounter;
+        private final Counter resolvedCounter;
+        private final Counter roundTripCounter;
+        private final DistributionSummary roundTripsPerComponent;
+        // guarded by ScanMetrics
+        private boolean finished;
+        // guarded by meters
+        private boolean removed;
+
+        private Batch(String batchId) {
+            this.tags = Tags.of("batchId", batchId);
+            this.componentTimer = register(Timer.builder(METRIC_PREFIX + ".component")
+                    .description("Time spent evaluating all rules against one component")
+                    .tags(tags)::register);
+            this.openedCounter = register(Counter.builder(METRIC_PREFIX + ".violations")
+                    .description("Violations opened or resolved by a scan")
+                    .tags(tags).tag("transition", "opened")::register);
+            this.resolvedCounter = register(Counter.builder(METRIC_PREFIX + ".violations")
+                    .description("Violations opened or resolved by a scan")
+                    .tags(tags).tag("transition", "resolved")::register);
+            this.roundTripCounter = register(Counter.builder(METRIC_PREFIX + ".mongo.round-trips")
+                    .description("Mongo commands issued while scanning")
+                    .tags(tags)::register);
+            this.roundTripsPerComponent = register(DistributionSummary.builder(METRIC_PREFIX + ".mongo.round-trips.per-component")
+                    .description("Mongo commands per scanned component, recorded per chunk")
+                    .tags(tags)::register);
+        }
+
+        public void recordComponent(long nanos) {
+            componentTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordRule(String ruleId, long nanos) {
+            ruleTimers.computeIfAbsent(ruleId, id -> register(Timer.builder(METRIC_PREFIX + ".rule")
+                            .description("Time spent evaluating one rule against one component")
+                            .tags(tags).tag("ruleId", id)::register))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void violationOpened() {
+            openedCounter.increment();
+        }
+
+        public void violationResolved() {
+            resolvedCounter.increment();
+        }
+
+        /**
+         * Records the duration of the batch's run and finishes the batch, it is kept until enough newer batches
+         * finished.
+         */
+        public void recordRun(Duration duration, String result) {
+            register(Timer.builder(METRIC_PREFIX + ".run")
+                    .description("Duration of a scan run")
+                    .tags(tags).tag("result", result)::register)
+                    .record(duration);
+            finished(this);
+        }
+
+        /**
+         * Counts the Mongo commands the current thread issues until the returned handle is closed and records them
+         * against the given number of components.
+         */
+        public RoundTrips countRoundTrips(int components) {
+            RoundTrips counting = new RoundTrips(this, components);
+            roundTrips.set(counting);
+            return counting;
+        }
+
+        /**
+         * Registers a meter of the batch. A chunk may still hold the batch after it was removed, its meters are then
+         * not registered, so they can neither leak nor clash with those of a newer batch with the same id.
+         */
+        private <M extends Meter> M register(Function<MeterRegistry, M> registration) {
+            synchronized (meters) {
+                if (removed) {
+                    return registration.apply(DETACHED);
+                }
+                M meter = registration.apply(meterRegistry);
+                meters.add(meter);
+                return meter;
+            }
+        }
+
+        private void remove() {
+            synchronized (meters) {
+                removed = true;
+                meters.forEach(meterRegistry::remove);
+                meters.clear();
+            }
+        }
+    }
+
+    public final class RoundTrips implements AutoCloseable {
+        private final Batch batch;
+        private final int components;
+        private long count;
+
+        private RoundTrips(Batch batch, int components) {
+            this.batch = batch;
+            this.components = components;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            roundTrips.remove();
+            batch.roundTripCounter.increment(count);
+            if (components > 0) {
+                batch.roundTripsPerComponent.record((double) count / components);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package org.akj.test.tracker.infrastructure.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.rule.model.RuleViolation;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+/**
+ * Creates the unique indexes that keep concurrent writers from storing the same component or violation twice. They
+ * are not declared on the entities because auto index creation fails on collections that already hold duplicates,
+ * which older versions wrote. Duplicates are removed first, the most recently updated document of each key is kept.
+ * Runs once all singletons exist, before the web server and the schedulers start writing.
+ * <p>
+ * Replicas of an older version may still write duplicates during a rolling deployment, a build that collides with
+ * one deduplicates again. If it keeps colliding, startup goes on without the index and the next start creates it.
+ */
+@Component
+@Slf4j
+public class UniqueIndexMigration implements SmartInitializingSingleton {
+    // deduplicate and build again when a concurrent writer stored a duplicate in between
+    static final int MAX_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    public UniqueIndexMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // components registered without componentId are identified by metadata instead and stay out of the index
+        ensureUniqueIndex(ComponentAndDependency.class, "componentId_branch", List.of("componentId", "branch"),
+                "lastUpdatedAt", Criteria.where("componentId").exists(true), null);
+        // replaces the non-unique index the first batched scans created
+        ensureUniqueIndex(RuleViolation.class, "componentId_ruleId_unique", List.of("componentId", "ruleId"),
+                "updatedAt", null, "componentId_ruleId");
+    }
+
+    void ensureUniqueIndex(Class<?> entity, String name, List<String> keys, String newestField,
+                           Criteria partialFilter, String replacedIndex) {
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        if (replacedIndex != null && indexOps.getIndexInfo().stream().anyMatch(info -> replacedIndex.equals(info.getName()))) {
+            indexOps.dropIndex(replacedIndex);
+            log.info("Dropped index {} of {}, replaced by unique index {}", replacedIndex, entity.getSimpleName(), name);
+        }
+
+        Index index = new Index().named(name).unique();
+        keys.forEach(key -> index.on(key, Sort.Direction.ASC));
+        if (partialFilter != null) {
+            index.partial(PartialIndexFilter.of(partialFilter));
+        }
+        for (int attempt = 1; ; attempt++) {
+            long removed = removeDuplicates(entity, keys, newestField, partialFilter);
+            if (removed > 0) {
+                log.warn("Removed {} duplicate {} documents before building unique index {}", removed,
+                        entity.getSimpleName(), name);
+            }
+            try {
+                indexOps.ensureIndex(index);
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("Unique index {} of {} could not be built, duplicates keep being written, it is created "
+                            + "on the next start", name, entity.getSimpleName(), e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all but the most recently updated document of every key that is stored more than once.
+     */
+    long removeDuplicates(Class<?> entity, List<String> keys, String newestField, Criteria partialFilter) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        if (partialFilter != null) {
+            operations.add(match(partialFilter));
+        }
+        operations.add(sort(Sort.by(Sort.Direction.DESC, newestField, "_id")));
+        operations.add(group(keys.toArray(String[]::new)).push("_id").as("ids").count().as("count"));
+        operations.add(match(Criteria.where("count").gt(1)));
+        Aggregation aggregation = newAggregation(operations)
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        long removed = 0;
+        for (Document duplicates : mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(entity),
+                Document.class).getMappedResults()) {
+            List<?> ids = duplicates.getList("ids", Object.class);
+            removed += mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids.subList(1, ids.size()))),
+                    mongoTemplate.getCollectionName(entity)).getDeletedCount();
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,137 @@
+package org.akj.test.tracker.infrastructure.storage.component.cold;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.akj.test.tracker.domain.component.service.ComponentDomainService.DEPENDENCY_COUNT;
+import static org.akj.test.tracker.domain.component.service.ComponentDomainService.FACET_DEPENDENCIES;
+import static org.akj.test.tracker.domain.component.service.ComponentDomainService.PACKED_DEPENDENCIES;
+
+/**
+ * Moves components between the hot encoding (plain dependency array) and the cold encoding (LZ4 packed binary).
+ * Components not updated for {@code tracker.cold-storage.cold-after} are packed, packed components that became
+ * warm again are unpacked. With cold storage disabled every packed component is unpacked. Each write is guarded by
+ * the lastUpdatedAt that was read, an upload in between wins.
+ * <p>
+ * Packed components also keep their {@link FacetDependencies} unpacked, components packed before that field existed
+ * get it on the next compaction.
+ */
+@Component
+@Slf4j
+public class ColdStorageCompactor {
+    private final MongoTemplate mongoTemplate;
+    private final PackedDependencyCodec packedDependencyCodec;
+    private final boolean enabled;
+    private final Duration coldAfter;
+    private final int batchSize;
+
+    public ColdStorageCompactor(MongoTemplate mongoTemplate, PackedDependencyCodec packedDependencyCodec,
+                                @Value("${tracker.cold-storage.enabled:false}") boolean enabled,
+                                @Value("${tracker.cold-storage.cold-after:90d}") Duration coldAfter,
+                                @Value("${tracker.cold-storage.batch-size:200}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.packedDependencyCodec = packedDependencyCodec;
+        this.enabled = enabled;
+        this.coldAfter = coldAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${tracker.cold-storage.compaction-interval:PT1H}",
+            initialDelayString = "${tracker.cold-storage.compaction-initial-delay:PT5M}")
+    public void compact() {
+        try {
+            Instant coldBefore = Instant.now().minus(coldAfter);
+            int packed = enabled ? packColdComponents(coldBefore) : 0;
+            int unpacked = unpackWarmComponents(enabled ? coldBefore : null);
+            int indexed = enabled ? addMissingFacetDependencies() : 0;
+            if (packed > 0 || unpacked > 0 || indexed > 0) {
+                log.info("Cold storage compaction done, packed: {}, unpacked: {}, facet dependencies added: {}",
+                        packed, unpacked, indexed);
+            }
+        } catch (Exception e) {
+            log.error("Cold storage compaction failed", e);
+        }
+    }
+
+    int packColdComponents(Instant coldBefore) {
+        Query query = Query.query(Criteria.where("lastUpdatedAt").lt(coldBefore)
+                .and(DEPENDENCY_COUNT).exists(false));
+        query.fields().include("dependencies", "lastUpdatedAt");
+
+        return rewrite(query, component -> new Update()
+                .set(PACKED_DEPENDENCIES, packedDependencyCodec.pack(component.getDependencies()))
+                .set(DEPENDENCY_COUNT, component.getDependencies().size())
+                .set(FACET_DEPENDENCIES, FacetDependencies.of(component.getDependencies()))
+                .unset("dependencies"));
+    }
+
+    int addMissingFacetDependencies() {
+        Query query = Query.query(Criteria.where(DEPENDENCY_COUNT).exists(true).and(FACET_DEPENDENCIES).exists(false));
+        query.fields().include(PACKED_DEPENDENCIES, "lastUpdatedAt");
+
+        return rewrite(query, component -> new Update()
+                .set(FACET_DEPENDENCIES, FacetDependencies.of(component.getDependencies())));
+    }
+
+    int unpackWarmComponents(Instant coldBefore) {
+        Criteria criteria = Criteria.where(DEPENDENCY_COUNT).exists(true);
+        if (coldBefore != null) {
+            criteria.and("lastUpdatedAt").gte(coldBefore);
+        }
+        Query query = Query.query(criteria);
+        query.fields().include(PACKED_DEPENDENCIES, "lastUpdatedAt");
+
+        // PackedDependenciesCallback has already unpacked the dependencies on read
+        return rewrite(query, component -> new Update()
+                .set("dependencies", component.getDependencies())
+                .unset(PACKED_DEPENDENCIES)
+                .unset(DEPENDENCY_COUNT)
+                .unset(FACET_DEPENDENCIES));
+    }
+
+    private int rewrite(Query query, Function<ComponentAndDependency, Update> update) {
+        int rewritten = 0;
+        List<ComponentAndDependency> batch = new ArrayList<>(batchSize);
+        try (Stream<ComponentAndDependency> components = mongoTemplate.stream(query, ComponentAndDependency.class)) {
+            for (ComponentAndDependency component : (Iterable<ComponentAndDependency>) components::iterator) {
+                if (component.getDependencies() == null) {
+                    continue;
+                }
+                batch.add(component);
+                if (batch.size() >= batchSize) {
+                    rewritten += write(batch, update);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            rewritten += write(batch, update);
+        }
+        return rewritten;
+    }
+
+    private int write(List<ComponentAndDependency> batch, Function<ComponentAndDependency, Update> update) {
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ComponentAndDependency.class);
+        batch.forEach(component -> bulkOps.updateOne(
+                Query.query(Criteria.where("_id").is(component.getId())
+                        .and("lastUpdatedAt").is(component.getLastUpdatedAt())),
+                update.apply(component)));
+        int modified = bulkOps.execute().getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+}
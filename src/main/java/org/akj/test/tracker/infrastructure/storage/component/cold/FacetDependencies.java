@@ -0,0 +1,28 @@
+package org.akj.test.tracker.infrastructure.storage.component.cold;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+
+import java.util.List;
+
+/**
+ * Dependencies the version distribution facet reports on: Spring Boot artefacts and frontend frameworks. Cold
+ * components keep these few dependencies unpacked next to the packed ones, so the facet aggregates them on the server
+ * without decoding any packed binary.
+ */
+public final class FacetDependencies {
+    public static final String SPRING_BOOT_PREFIX = "org.springframework.boot";
+    public static final List<String> FRONTEND_FRAMEWORKS = List.of("react", "react-dom", "angular", "vue");
+
+    private FacetDependencies() {
+    }
+
+    public static List<Dependency> of(List<Dependency> dependencies) {
+        return dependencies.stream()
+                .filter(dependency -> matches(dependency.getArtefact()))
+                .toList();
+    }
+
+    private static boolean matches(String artefact) {
+        return artefact != null && (artefact.startsWith(SPRING_BOOT_PREFIX) || FRONTEND_FRAMEWORKS.contains(artefact));
+    }
+}
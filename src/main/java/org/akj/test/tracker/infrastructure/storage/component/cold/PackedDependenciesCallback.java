@@ -0,0 +1,30 @@
+package org.akj.test.tracker.infrastructure.storage.component.cold;
+
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Unpacks the dependencies of cold components right after they are read, so every reader (scans, facets, the API)
+ * sees a plain dependency list regardless of the storage encoding.
+ */
+@Component
+public class PackedDependenciesCallback implements AfterConvertCallback<ComponentAndDependency> {
+    private final PackedDependencyCodec packedDependencyCodec;
+
+    public PackedDependenciesCallback(PackedDependencyCodec packedDependencyCodec) {
+        this.packedDependencyCodec = packedDependencyCodec;
+    }
+
+    @Override
+    public ComponentAndDependency onAfterConvert(ComponentAndDependency entity, Document document, String collection) {
+        if (entity.getPackedDependencies() != null) {
+            entity.setDependencies(packedDependencyCodec.unpack(entity.getPackedDependencies()));
+            // saving the entity again stores it hot
+            entity.setPackedDependencies(null);
+            entity.setDependencyCount(null);
+        }
+        return entity;
+    }
+}
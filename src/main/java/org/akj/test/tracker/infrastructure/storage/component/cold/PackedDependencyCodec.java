@@ -0,0 +1,112 @@
+package org.akj.test.tracker.infrastructure.storage.component.cold;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs a dependency list into one LZ4 compressed binary for cold components.
+ * <p>
+ * Layout: format byte, varint raw length, LZ4 block. The raw block is a varint count followed by artefact id,
+ * version and type per dependency. Ids and string lengths are varints shifted by one, 0 stands for null.
+ */
+@Component
+public class PackedDependencyCodec {
+    private static final byte FORMAT_V1 = 1;
+    private static final LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+
+    private final ArtefactDictionary artefactDictionary;
+    private final LZ4Compressor compressor = lz4Factory.fastCompressor();
+    private final LZ4FastDecompressor decompressor = lz4Factory.fastDecompressor();
+
+    public PackedDependencyCodec(ArtefactDictionary artefactDictionary) {
+        this.artefactDictionary = artefactDictionary;
+    }
+
+    public byte[] pack(List<Dependency> dependencies) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(dependencies.size() * 16 + 8);
+        writeVarInt(raw, dependencies.size());
+        for (Dependency dependency : dependencies) {
+            writeVarInt(raw, dependency.getArtefact() == null ? 0 : artefactDictionary.idOf(dependency.getArtefact()) + 1);
+            writeString(raw, dependency.getVersion());
+            writeString(raw, dependency.getType());
+        }
+        byte[] rawBytes = raw.toByteArray();
+
+        ByteArrayOutputStream packed = new ByteArrayOutputStream(compressor.maxCompressedLength(rawBytes.length) + 6);
+        packed.write(FORMAT_V1);
+        writeVarInt(packed, rawBytes.length);
+        byte[] compressed = compressor.compress(rawBytes);
+        packed.write(compressed, 0, compressed.length);
+        return packed.toByteArray();
+    }
+
+    public List<Dependency> unpack(byte[] packed) {
+        ByteBuffer header = ByteBuffer.wrap(packed);
+        byte format = header.get();
+        if (format != FORMAT_V1) {
+            throw new IllegalStateException("Unknown packed dependency format: " + format);
+        }
+        int rawLength = readVarInt(header);
+        byte[] rawBytes = decompressor.decompress(packed, header.position(), rawLength);
+
+        ByteBuffer raw = ByteBuffer.wrap(rawBytes);
+        int count = readVarInt(raw);
+        List<Dependency> dependencies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int artefactId = readVarInt(raw);
+            String artefact = artefactId == 0 ? null : artefactDictionary.artefactOf(artefactId - 1);
+            dependencies.add(new Dependency(artefact, readString(raw), readString(raw)));
+        }
+        return dependencies;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.position(), length - 1, StandardCharsets.UTF_8);
+        in.position(in.position() + length - 1);
+        return value;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,200 @@
+package org.akj.test.tracker.infrastructure.storage.component.dictionary;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Maps artefact names (e.g. {@code org.springframework.boot:spring-boot-starter-web}) to compact integer ids, so
+ * component documents and their indexes store a small int per dependency instead of the full name. The mapping
+ * lives in the {@code artefact_dictionary} collection and is cached in memory; an id never changes once assigned.
+ * <p>
+ * Works on the raw driver collections because the Mongo converters depend on this class.
+ */
+@Component
+@Slf4j
+public class ArtefactDictionary {
+    public static final String COLLECTION_NAME = "artefact_dictionary";
+    static final String COUNTER_COLLECTION_NAME = "counters";
+    static final String COUNTER_ID = COLLECTION_NAME;
+
+    private final MongoDatabaseFactory mongoDatabaseFactory;
+    private final Map<String, Integer> idsByArtefact = new ConcurrentHashMap<>();
+    private final Map<Integer, String> artefactsById = new ConcurrentHashMap<>();
+    // serialises id allocation within this instance, other instances are handled by the unique index
+    private final ReentrantLock allocationLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public ArtefactDictionary(MongoDatabaseFactory mongoDatabaseFactory) {
+        this.mongoDatabaseFactory = mongoDatabaseFactory;
+    }
+
+    public int idOf(String artefact) {
+        Integer id = idsByArtefact.get(artefact);
+        if (id != null) {
+            return id;
+        }
+        return register(List.of(artefact)).get(artefact);
+    }
+
+    /**
+     * Resolves the ids of all given artefacts, allocating ids for unknown ones. Costs no round trip when everything
+     * is cached and at most three (lookup, counter, insert) otherwise, whatever the number of artefacts.
+     */
+    public Map<String, Integer> register(Collection<String> artefacts) {
+        ensureLoaded();
+        Set<String> missing = missing(artefacts);
+        if (!missing.isEmpty()) {
+            allocationLock.lock();
+            try {
+                missing = missing(missing);
+                if (!missing.isEmpty()) {
+                    // another instance may have registered them since the cache was loaded
+                    load(Filters.in("artefact", missing));
+                    missing = missing(missing);
+                }
+                if (!missing.isEmpty()) {
+                    allocate(missing);
+                }
+            } finally {
+                allocationLock.unlock();
+            }
+        }
+
+        Map<String, Integer> ids = new HashMap<>();
+        artefacts.stream().filter(Objects::nonNull).forEach(artefact -> ids.put(artefact, idsByArtefact.get(artefact)));
+        return ids;
+    }
+
+    /**
+     * Returns the artefact for an id, null if the id is unknown.
+     */
+    public String artefactOf(int id) {
+        String artefact = artefactsById.get(id);
+        if (artefact == null) {
+            // allocated by another instance after this cache was loaded
+            load(Filters.eq("_id", id));
+            artefact = artefactsById.get(id);
+        }
+        return artefact;
+    }
+
+    /**
+     * Ids of the known artefacts among the given names, unknown names are skipped instead of registered.
+     */
+    public List<Integer> findIds(Collection<String> artefacts) {
+        ensureLoaded();
+        Set<String> missing = missing(artefacts);
+        if (!missing.isEmpty()) {
+            load(Filters.in("artefact", missing));
+        }
+        return artefacts.stream().filter(Objects::nonNull).map(idsByArtefact::get).filter(Objects::nonNull).distinct().toList();
+    }
+
+    /**
+     * Ids of all artefacts matching the pattern, used to translate regex queries on artefact names.
+     */
+    public List<Integer> findIds(Pattern pattern) {
+        List<Integer> ids = new ArrayList<>();
+        collection().find(Filters.regex("artefact", pattern)).forEach(doc -> ids.add(cache(doc)));
+        return ids;
+    }
+
+    private void allocate(Set<String> artefacts) {
+        Document counter = database().getCollection(COUNTER_COLLECTION_NAME).findOneAndUpdate(
+                Filters.eq("_id", COUNTER_ID),
+                Updates.inc("seq", artefacts.size()),
+                new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        int next = counter.getInteger("seq") - artefacts.size() + 1;
+
+        List<Document> entries = new ArrayList<>(artefacts.size());
+        for (String artefact : artefacts) {
+            entries.add(new Document("_id", next++).append("artefact", artefact));
+        }
+        try {
+            collection().insertMany(entries, new InsertManyOptions().ordered(false));
+            entries.forEach(this::cache);
+        } catch (MongoBulkWriteException e) {
+            boolean onlyDuplicates = e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            // lost the race for some artefacts, their ids are the ones stored by the other instance
+            load(Filters.in("artefact", artefacts));
+        }
+        log.debug("Registered {} new artefacts", artefacts.size());
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        allocationLock.lock();
+        try {
+            if (!loaded) {
+                collection().createIndex(Indexes.ascending("artefact"), new IndexOptions().unique(true));
+                load(new Document());
+                log.info("Loaded {} artefacts into the artefact dictionary", idsByArtefact.size());
+                loaded = true;
+            }
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    private void load(Bson filter) {
+        collection().find(filter).forEach(this::cache);
+    }
+
+    private int cache(Document entry) {
+        int id = entry.getInteger("_id");
+        String artefact = entry.getString("artefact");
+        idsByArtefact.put(artefact, id);
+        artefactsById.put(id, artefact);
+        return id;
+    }
+
+    private Set<String> missing(Collection<String> artefacts) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String artefact : artefacts) {
+            if (artefact != null && !idsByArtefact.containsKey(artefact)) {
+                missing.add(artefact);
+            }
+        }
+        return missing;
+    }
+
+    private MongoCollection<Document> collection() {
+        return database().getCollection(COLLECTION_NAME);
+    }
+
+    private MongoDatabase database() {
+        return mongoDatabaseFactory.getMongoDatabase();
+    }
+}
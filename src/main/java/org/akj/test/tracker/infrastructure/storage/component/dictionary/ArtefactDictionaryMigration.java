@@ -0,0 +1,89 @@
+package org.akj.test.tracker.infrastructure.storage.component.dictionary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Rewrites components stored before the artefact dictionary existed, replacing the artefact names of their
+ * dependencies with dictionary ids. Runs on startup and only touches documents that still carry names. Uploads are
+ * served meanwhile, so a component is only rewritten if it still has the lastUpdatedAt that was read, an upload in
+ * between wins and has already stored ids.
+ */
+@Component
+@Slf4j
+public class ArtefactDictionaryMigration implements ApplicationRunner {
+    private final MongoTemplate mongoTemplate;
+    private final ArtefactDictionary artefactDictionary;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public ArtefactDictionaryMigration(MongoTemplate mongoTemplate, ArtefactDictionary artefactDictionary,
+                                       @Value("${tracker.artefact-dictionary.migrate-on-startup:true}") boolean enabled,
+                                       @Value("${tracker.artefact-dictionary.migration-batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.artefactDictionary = artefactDictionary;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("dependencies.artefact").exists(true));
+        query.fields().include("dependencies", "lastUpdatedAt");
+
+        long migrated = 0;
+        List<ComponentAndDependency> batch = new ArrayList<>(batchSize);
+        // the reading converter still understands names, writing the same dependencies back stores ids
+        try (Stream<ComponentAndDependency> components = mongoTemplate.stream(query, ComponentAndDependency.class)) {
+            for (ComponentAndDependency component : (Iterable<ComponentAndDependency>) components::iterator) {
+                batch.add(component);
+                if (batch.size() >= batchSize) {
+                    migrated += write(batch);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            migrated += write(batch);
+        }
+        if (migrated > 0) {
+            log.info("Migrated {} components to artefact dictionary ids", migrated);
+        }
+    }
+
+    private int write(List<ComponentAndDependency> batch) {
+        artefactDictionary.register(batch.stream()
+                .flatMap(component -> component.getDependencies().stream())
+                .map(Dependency::getArtefact)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ComponentAndDependency.class);
+        batch.forEach(component -> bulkOps.updateOne(
+                Query.query(Criteria.where("_id").is(component.getId())
+                        .and("lastUpdatedAt").is(component.getLastUpdatedAt())),
+                new Update().set("dependencies", component.getDependencies())));
+        int migrated = bulkOps.execute().getModifiedCount();
+
+        batch.clear();
+        return migrated;
+    }
+}
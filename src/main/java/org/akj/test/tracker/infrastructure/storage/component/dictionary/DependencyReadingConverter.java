@@ -0,0 +1,28 @@
+package org.akj.test.tracker.infrastructure.storage.component.dictionary;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+
+/**
+ * Resolves the artefact name of a stored dependency from its dictionary id. Documents written before the dictionary
+ * existed still carry the plain {@code artefact} name and are read as they are.
+ */
+@ReadingConverter
+public class DependencyReadingConverter implements Converter<Document, Dependency> {
+    private final ArtefactDictionary artefactDictionary;
+
+    public DependencyReadingConverter(ArtefactDictionary artefactDictionary) {
+        this.artefactDictionary = artefactDictionary;
+    }
+
+    @Override
+    public Dependency convert(Document document) {
+        Integer artefactId = document.getInteger(DependencyWritingConverter.ARTEFACT_ID);
+        String artefact = artefactId != null
+                ? artefactDictionary.artefactOf(artefactId)
+                : document.getString("artefact");
+        return new Dependency(artefact, document.getString("version"), document.getString("type"));
+    }
+}
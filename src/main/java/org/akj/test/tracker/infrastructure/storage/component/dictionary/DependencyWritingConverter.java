@@ -0,0 +1,31 @@
+package org.akj.test.tracker.infrastructure.storage.component.dictionary;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.bson.Document;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Stores a dependency as {@code {artefactId, version, type}}, the artefact name is replaced by its dictionary id.
+ */
+@WritingConverter
+public class DependencyWritingConverter implements Converter<Dependency, Document> {
+    public static final String ARTEFACT_ID = "artefactId";
+
+    private final ArtefactDictionary artefactDictionary;
+
+    public DependencyWritingConverter(ArtefactDictionary artefactDictionary) {
+        this.artefactDictionary = artefactDictionary;
+    }
+
+    @Override
+    public Document convert(Dependency dependency) {
+        Document document = new Document();
+        if (dependency.getArtefact() != null) {
+            document.append(ARTEFACT_ID, artefactDictionary.idOf(dependency.getArtefact()));
+        }
+        return document
+                .append("version", dependency.getVersion())
+                .append("type", dependency.getType());
+    }
+}
@@ -0,0 +1,175 @@
+package org.akj.test.tracker.infrastructure.storage.component.scan;
+
+import lombok.extern.slf4j.Slf4j;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.common.model.RuntimeType;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.model.ComponentMetadata;
+import org.akj.test.tracker.domain.component.model.RuntimeInfo;
+import org.akj.test.tracker.infrastructure.storage.component.cold.PackedDependencyCodec;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.DependencyWritingConverter;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the fields a violation scan needs straight from a component's raw BSON: id, name and EIM id, language,
+ * runtime and the artefact and version of every dependency. Everything else is skipped without being decoded. This
+ * bypasses the reflective mapping of Spring Data, which builds a full {@link ComponentAndDependency} through property
+ * accessors and runs the dependency converters and callbacks per document.
+ * <p>
+ * Dependency artefacts are resolved like {@code DependencyReadingConverter} does and packed dependencies of cold
+ * components are unpacked like {@code PackedDependenciesCallback} does. Dependency types are not read.
+ */
+@Component
+@Slf4j
+public class RawComponentReader {
+    private final ArtefactDictionary artefactDictionary;
+    private final PackedDependencyCodec packedDependencyCodec;
+
+    public RawComponentReader(ArtefactDictionary artefactDictionary, PackedDependencyCodec packedDependencyCodec) {
+        this.artefactDictionary = artefactDictionary;
+        this.packedDependencyCodec = packedDependencyCodec;
+    }
+
+    public ComponentAndDependency read(RawBsonDocument document) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            return read(reader);
+        }
+    }
+
+    private ComponentAndDependency read(BsonReader reader) {
+        ComponentAndDependency component = new ComponentAndDependency();
+        byte[] packedDependencies = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id" -> component.setId(reader.getCurrentBsonType() == BsonType.OBJECT_ID
+                        ? reader.readObjectId().toHexString()
+                        : readString(reader));
+                case "language" -> component.setLanguage(readEnum(reader, ProgramLanguage.class));
+                case "runtimeInfo" -> component.setRuntimeInfo(readRuntimeInfo(reader));
+                case "metadata" -> component.setMetadata(readMetadata(reader));
+                case "dependencies" -> component.setDependencies(readDependencies(reader));
+                case "packedDependencies" -> {
+                    if (reader.getCurrentBsonType() == BsonType.BINARY) {
+                        packedDependencies = reader.readBinaryData().getData();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        if (packedDependencies != null) {
+            component.setDependencies(packedDependencyCodec.unpack(packedDependencies));
+        }
+        return component;
+    }
+
+    private static RuntimeInfo readRuntimeInfo(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        RuntimeInfo runtimeInfo = new RuntimeInfo();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "type" -> runtimeInfo.setType(readEnum(reader, RuntimeType.class));
+                case "version" -> runtimeInfo.setVersion(readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return runtimeInfo;
+    }
+
+    private static ComponentMetadata readMetadata(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        ComponentMetadata metadata = new ComponentMetadata();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "name" -> metadata.setName(readString(reader));
+                case "eimId" -> metadata.setEimId(readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return metadata;
+    }
+
+    private List<Dependency> readDependencies(BsonReader reader) {
+        List<Dependency> dependencies = new ArrayList<>();
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            reader.skipValue();
+            return dependencies;
+        }
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+                reader.skipValue();
+                continue;
+            }
+            String artefact = null;
+            String version = null;
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                String name = reader.readName();
+                if (DependencyWritingConverter.ARTEFACT_ID.equals(name) && reader.getCurrentBsonType() == BsonType.INT32) {
+                    artefact = artefactDictionary.artefactOf(reader.readInt32());
+                } else if ("artefact".equals(name) && artefact == null) {
+                    // written before the dictionary existed
+                    artefact = readString(reader);
+                } else if ("version".equals(name)) {
+                    version = readString(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+            dependencies.add(new Dependency(artefact, version, null));
+        }
+        reader.readEndArray();
+        return dependencies;
+    }
+
+    /**
+     * Components are decoded while the scan cursor is iterated, outside the handling of a single component, so an
+     * unknown constant is read as null rather than failing every component streamed with it.
+     */
+    private static <E extends Enum<E>> E readEnum(BsonReader reader, Class<E> type) {
+        String value = readString(reader);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            log.warn("Unknown {} value {}, reading it as null", type.getSimpleName(), value);
+            return null;
+        }
+    }
+
+    private static String readString(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        reader.skipValue();
+        return null;
+    }
+}
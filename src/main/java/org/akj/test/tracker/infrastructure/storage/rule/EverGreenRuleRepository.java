@@ -35,6 +35,8 @@ public interface EverGreenRuleRepository extends MongoRepository<EverGreenRule,
 
     List<EverGreenRule> findByRuleDefinitionLanguageAndStatusIn(ProgramLanguage language, List<RuleStatus> status);
 
+    List<EverGreenRule> findByStatusIn(List<RuleStatus> statuses);
+
     long countByStatusIn(List<String> statuses);
 
     @Aggregation(pipeline = {
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 import org.bson.Document;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,6 +19,12 @@ import java.util.Optional;
 @Repository
 public interface RuleViolationRepository extends MongoRepository<RuleViolation, String> {
 
+    List<RuleViolation> findByComponentIdIn(Collection<String> componentIds);
+
+    // only the component ids, served from the ruleId_componentId index
+    @Query(value = "{ 'ruleId': ?0 }", fields = "{ 'componentId': 1 }")
+    List<RuleViolation> findComponentIdsByRuleId(String ruleId);
+
     @Query(value = "{ $and: [ " +
             "{ $or: [ " +
             "   { $expr: { $eq: [?0, null] } }, " +
@@ -0,0 +1,13 @@
+package org.akj.test.tracker.infrastructure.storage.rule;
+
+import org.akj.test.tracker.domain.rule.model.ScanRun;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ScanRunRepository extends MongoRepository<ScanRun, String> {
+
+    Optional<ScanRun> findFirstByShardAndStatusOrderByStartedAtDesc(String shard, String status);
+}
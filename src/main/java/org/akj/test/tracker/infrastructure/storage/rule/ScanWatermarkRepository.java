@@ -0,0 +1,9 @@
+package org.akj.test.tracker.infrastructure.storage.rule;
+
+import org.akj.test.tracker.domain.rule.model.ScanWatermark;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScanWatermarkRepository extends MongoRepository<ScanWatermark, String> {
+}
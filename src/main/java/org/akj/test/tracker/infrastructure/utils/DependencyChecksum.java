@@ -0,0 +1,124 @@
+package org.akj.test.tracker.infrastructure.utils;
+
+import net.jpountz.xxhash.StreamingXXHash64;
+import org.akj.test.tracker.domain.common.model.Dependency;
+
+import java.util.Collection;
+
+/**
+ * Canonical checksum of a dependency set. Every dependency's artefact, version and type are UTF-8 encoded into a
+ * small reusable buffer and fed into a streaming XXH64, nothing is allocated per dependency. The per-dependency
+ * hashes are folded with commutative operations (sum and xor) plus the count, so the result does not depend on the
+ * order dependencies arrive in. An empty set yields an empty string.
+ * <p>
+ * Instances are not thread-safe, create one per checksum.
+ */
+public final class DependencyChecksum {
+    private static final int BUFFER_SIZE = 256;
+    // bytes that never appear in UTF-8, used to delimit fields and to tell null from empty
+    private static final byte FIELD_END = (byte) 0xFF;
+    private static final byte NULL_FIELD = (byte) 0xFE;
+
+    private final StreamingXXHash64 hash = XxHashUtils.newStreamingHash();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    private long count;
+    private long sum;
+    private long xor;
+
+    public static String of(Collection<Dependency> dependencies) {
+        if (dependencies == null || dependencies.isEmpty()) {
+            return "";
+        }
+        DependencyChecksum checksum = new DependencyChecksum();
+        for (Dependency dependency : dependencies) {
+            checksum.add(dependency);
+        }
+        return checksum.getValue();
+    }
+
+    public DependencyChecksum add(Dependency dependency) {
+        return add(dependency.getArtefact(), dependency.getVersion(), dependency.getType());
+    }
+
+    public DependencyChecksum add(String artefact, String version, String type) {
+        hash.reset();
+        position = 0;
+        writeField(artefact);
+        writeField(version);
+        writeField(type);
+        flush();
+
+        long value = hash.getValue();
+        count++;
+        sum += value;
+        xor ^= value;
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public String getValue() {
+        if (count == 0) {
+            return "";
+        }
+        hash.reset();
+        position = 0;
+        writeLong(count);
+        writeLong(sum);
+        writeLong(xor);
+        flush();
+        return XxHashUtils.toHex(hash.getValue());
+    }
+
+    private void writeField(String value) {
+        if (value == null) {
+            writeByte(NULL_FIELD);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeByte((byte) c);
+            } else if (c < 0x800) {
+                writeByte((byte) (0xC0 | (c >> 6)));
+                writeByte((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte((byte) (0xF0 | (codePoint >> 18)));
+                writeByte((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                writeByte((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                writeByte((byte) (0x80 | (codePoint & 0x3F)));
+            } else {
+                writeByte((byte) (0xE0 | (c >> 12)));
+                writeByte((byte) (0x80 | ((c >> 6) & 0x3F)));
+                writeByte((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        writeByte(FIELD_END);
+    }
+
+    private void writeLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((byte) (value >>> shift));
+        }
+    }
+
+    private void writeByte(byte b) {
+        if (position == BUFFER_SIZE) {
+            flush();
+        }
+        buffer[position++] = b;
+    }
+
+    private void flush() {
+        if (position > 0) {
+            hash.update(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
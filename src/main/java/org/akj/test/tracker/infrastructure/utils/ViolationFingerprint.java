@@ -0,0 +1,97 @@
+package org.akj.test.tracker.infrastructure.utils;
+
+import net.jpountz.xxhash.StreamingXXHash64;
+import org.akj.test.tracker.domain.rule.model.DependencyTarget;
+import org.akj.test.tracker.domain.rule.model.DependencyViolation;
+import org.akj.test.tracker.domain.rule.model.RuleViolation;
+import org.akj.test.tracker.domain.rule.model.RuntimeTarget;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fingerprint of the state of a {@link RuleViolation} a scan decides on: status, the runtime and dependency
+ * versions and the display names. Bookkeeping fields such as ids and timestamps are left out, so a violation that
+ * a scan re-evaluates to the same outcome keeps the same fingerprint and doesn't need to be written again.
+ * <p>
+ * Dependency violations are hashed one by one and folded with commutative operations like in
+ * {@link DependencyChecksum}, their order follows the component's dependency list and is not significant.
+ * Instances are not thread-safe, create one per fingerprint.
+ */
+public final class ViolationFingerprint {
+    // bytes that never appear in UTF-8, used to delimit fields and to tell null from empty
+    private static final byte[] FIELD_END = {(byte) 0xFF};
+    private static final byte[] NULL_FIELD = {(byte) 0xFE};
+
+    private final StreamingXXHash64 hash = XxHashUtils.newStreamingHash();
+
+    public static String of(RuleViolation violation) {
+        return new ViolationFingerprint().compute(violation);
+    }
+
+    private String compute(RuleViolation violation) {
+        long count = 0;
+        long sum = 0;
+        long xor = 0;
+        if (violation.getDependencyViolations() != null) {
+            for (DependencyViolation dependencyViolation : violation.getDependencyViolations()) {
+                hash.reset();
+                write(dependencyViolation.getDependencyCurrentVersion());
+                write(dependencyViolation.getDependencyTargetVersion());
+                long value = hash.getValue();
+                count++;
+                sum += value;
+                xor ^= value;
+            }
+        }
+
+        hash.reset();
+        writeField(violation.getRuleName());
+        writeField(violation.getComponentName());
+        writeField(violation.getStatus() == null ? null : violation.getStatus().name());
+        writeField(violation.getHasViolation() == null ? null : violation.getHasViolation().toString());
+        write(violation.getRuntimeCurrentVersion());
+        write(violation.getRuntimeTargetVersion());
+        writeLong(count);
+        writeLong(sum);
+        writeLong(xor);
+        return XxHashUtils.toHex(hash.getValue());
+    }
+
+    private void write(RuntimeTarget target) {
+        if (target == null) {
+            writeField(null);
+            return;
+        }
+        writeField(target.getRuntimeType() == null ? null : target.getRuntimeType().name());
+        writeField(target.getVersion());
+        writeField(target.getOperator() == null ? null : target.getOperator().name());
+    }
+
+    private void write(DependencyTarget target) {
+        if (target == null) {
+            writeField(null);
+            return;
+        }
+        writeField(target.getArtefact());
+        writeField(target.getVersion());
+        writeField(target.getOperator() == null ? null : target.getOperator().name());
+    }
+
+    private void writeField(String value) {
+        if (value == null) {
+            hash.update(NULL_FIELD, 0, 1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        hash.update(bytes, 0, bytes.length);
+        hash.update(FIELD_END, 0, 1);
+    }
+
+    private void writeLong(long value) {
+        byte[] bytes = new byte[Long.BYTES];
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[i] = (byte) (value >>> (56 - 8 * i));
+        }
+        hash.update(bytes, 0, bytes.length);
+    }
+}
@@ -1,5 +1,6 @@
 package org.akj.test.tracker.infrastructure.utils;
 
+import net.jpountz.xxhash.StreamingXXHash64;
 import net.jpountz.xxhash.XXHashFactory;
 
 import java.nio.charset.StandardCharsets;
@@ -7,6 +8,7 @@ import java.util.Objects;
 
 public final class XxHashUtils {
     private static final XXHashFactory xxHashFactory = XXHashFactory.fastestInstance();
+    private static final XXHashFactory streamingHashFactory = XXHashFactory.fastestJavaInstance();
     private static final int SEED = 0x9747b28c;
 
     public static String hash(String content) {
@@ -15,4 +17,14 @@ public final class XxHashUtils {
         final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
         return Long.toHexString(xxHashFactory.hash64().hash(bytes, 0, bytes.length, SEED));
     }
+
+    // incremental variant of hash(String), feeding the same bytes in pieces yields the same value.
+    // the pure java instance avoids a JNI call per update and holds no native memory that would need closing
+    public static StreamingXXHash64 newStreamingHash() {
+        return streamingHashFactory.newStreamingHash64(SEED);
+    }
+
+    public static String toHex(long hash) {
+        return Long.toHexString(hash);
+    }
 }
@@ -82,6 +82,8 @@ public class ComponentAppMapstructMapperTest {
                 BuildManager.MAVEN,
                 "xx9080jj&jkjl",
                 Arrays.asList(new Dependency("org.example:artefact1", "1.0.0", "test")),
+                null,
+                null,
                 Instant.now(),
                 Instant.now()
         );
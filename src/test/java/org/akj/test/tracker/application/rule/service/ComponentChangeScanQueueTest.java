@@ -0,0 +1,67 @@
+package org.akj.test.tracker.application.rule.service;
+
+import org.akj.test.tracker.domain.component.event.ComponentDependenciesChangedEvent;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService.ComponentLite;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ComponentChangeScanQueueTest {
+
+    private EverGreenRuleViolationsScanService scanService;
+    private RuleSetSnapshotService ruleSetSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        scanService = mock(EverGreenRuleViolationsScanService.class);
+        ruleSetSnapshotService = mock(RuleSetSnapshotService.class);
+        when(ruleSetSnapshotService.current()).thenReturn(RuleSetSnapshot.EMPTY);
+    }
+
+    @Test
+    void testRepeatedChangesOfOneComponentAreCoalescedIntoOneScan() {
+        ComponentChangeScanQueue queue = new ComponentChangeScanQueue(scanService, ruleSetSnapshotService,
+                Duration.ZERO, 100, 10);
+        when(scanService.scanComponentsForViolations(anyList(), eq(RuleSetSnapshot.EMPTY),
+                eq(ComponentChangeScanQueue.BATCH_ID)))
+                .thenReturn(new EverGreenRuleViolationsScanService.ChunkScanResult(2, 0));
+
+        queue.onDependenciesChanged(event("id-1", "checksum-1"));
+        queue.onDependenciesChanged(event("id-1", "checksum-2"));
+        queue.onDependenciesChanged(event("id-2", "checksum-1"));
+        assertEquals(2, queue.getPendingCount());
+
+        queue.drain();
+
+        verify(scanService).scanComponentsForViolations(
+                argThat((List<ComponentLite> chunk) -> chunk.size() == 2), eq(RuleSetSnapshot.EMPTY),
+                eq(ComponentChangeScanQueue.BATCH_ID));
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    void testComponentsWaitForTheDebounceWindowAndQueueIsBounded() {
+        ComponentChangeScanQueue queue = new ComponentChangeScanQueue(scanService, ruleSetSnapshotService,
+                Duration.ofMinutes(1), 1, 10);
+
+        queue.onDependenciesChanged(event("id-1", "checksum-1"));
+        // full, left to the scheduled scan
+        queue.onDependenciesChanged(event("id-2", "checksum-1"));
+        queue.drain();
+
+        assertEquals(1, queue.getPendingCount());
+        verifyNoInteractions(scanService);
+    }
+
+    private static ComponentDependenciesChangedEvent event(String id, String checksum) {
+        return new ComponentDependenciesChangedEvent(id, "component-" + id, "main", checksum, Instant.now());
+    }
+}
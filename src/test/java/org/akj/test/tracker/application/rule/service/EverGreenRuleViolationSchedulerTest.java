@@ -0,0 +1,251 @@
+package org.akj.test.tracker.application.rule.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService.ComponentLite;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.akj.test.tracker.domain.rule.model.ScanRun;
+import org.akj.test.tracker.domain.rule.model.ScanWatermark;
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
+import org.akj.test.tracker.infrastructure.storage.rule.ScanWatermarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EverGreenRuleViolationSchedulerTest {
+
+    private EverGreenRuleViolationsScanService scanService;
+    private ComponentDomainService componentDomainService;
+    private RuleSetSnapshotService ruleSetSnapshotService;
+    private ScanWatermarkRepository scanWatermarkRepository;
+    private ScanRunService scanRunService;
+    private ScanLeaseService scanLeaseService;
+    private SimpleMeterRegistry meterRegistry;
+    private ThreadPoolTaskExecutor scanExecutor;
+    private EverGreenRuleViolationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scanService = mock(EverGreenRuleViolationsScanService.class);
+        componentDomainService = mock(ComponentDomainService.class);
+        scanExecutor = new ThreadPoolTaskExecutor();
+        scanExecutor.setCorePoolSize(3);
+        scanExecutor.setMaxPoolSize(3);
+        scanExecutor.initialize();
+        ruleSetSnapshotService = mock(RuleSetSnapshotService.class);
+        when(ruleSetSnapshotService.snapshotForRun()).thenReturn(RuleSetSnapshot.EMPTY);
+        scanWatermarkRepository = mock(ScanWatermarkRepository.class);
+        when(scanWatermarkRepository.findById(anyString())).thenReturn(Optional.empty());
+        scanRunService = mock(ScanRunService.class);
+        when(scanRunService.findInterrupted(anyString())).thenReturn(Optional.empty());
+        when(scanRunService.start(anyString(), anyString(), any(), anyBoolean(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> ScanRun.builder()
+                        .batchId(invocation.getArgument(0))
+                        .shard(invocation.getArgument(1))
+                        .fullScan(invocation.getArgument(3))
+                        .ruleSetVersion(invocation.getArgument(4))
+                        .updatedSince(invocation.getArgument(5))
+                        .scanStartedAt(invocation.getArgument(6))
+                        .total(invocation.getArgument(7))
+                        .build());
+        scanLeaseService = mock(ScanLeaseService.class);
+        when(scanLeaseService.tryAcquire(anyString())).thenReturn(true);
+        when(scanLeaseService.renew(anyString())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = scheduler(1);
+    }
+
+    private EverGreenRuleViolationScheduler scheduler(int shards) {
+        return new EverGreenRuleViolationScheduler(scanService, componentDomainService, ruleSetSnapshotService,
+                scanWatermarkRepository, scanRunService, scanLeaseService, new ScanMetrics(meterRegistry, 10), scanExecutor, 4, 2,
+                Duration.ofHours(24),
+                Duration.ofMinutes(5), Duration.ofMinutes(10), shards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scanExecutor.shutdown();
+    }
+
+    @Test
+    void testScansAllPartitionsAndIsolatesFailures() {
+        List<ComponentLite> components = IntStream.range(0, 5)
+                .mapToObj(i -> new ComponentLite("id-" + i, "component-" + i, "main", null))
+                .toList();
+        when(componentDomainService.getComponentsToScan(null, null, 0, 1)).thenReturn(components);
+        when(scanService.scanComponentsForViolations(anyList(), eq(RuleSetSnapshot.EMPTY), anyString()))
+                .thenAnswer(invocation -> new EverGreenRuleViolationsScanService.ChunkScanResult(
+                        invocation.<List<ComponentLite>>getArgument(0).size(), 0));
+        doThrow(new RuntimeException("boom")).when(scanService)
+                .scanComponentsForViolations(eq(components.subList(0, 2)), eq(RuleSetSnapshot.EMPTY), anyString());
+
+        scheduler.scheduleRuleViolationScan();
+
+        // partitions of 4 are scanned in chunks of 2, the failing first chunk does not stop the rest of its partition
+        verify(scanService).scanComponentsForViolations(eq(components.subList(0, 2)), eq(RuleSetSnapshot.EMPTY), anyString());
+        verify(scanService).scanComponentsForViolations(eq(components.subList(2, 4)), eq(RuleSetSnapshot.EMPTY), anyString());
+        verify(scanService).scanComponentsForViolations(eq(components.subList(4, 5)), eq(RuleSetSnapshot.EMPTY), anyString());
+        // the rule set is loaded once for the whole run
+        verify(ruleSetSnapshotService, times(1)).snapshotForRun();
+        // a failed chunk keeps the watermark so the next run retries it
+        verify(scanWatermarkRepository, never()).save(any());
+        ArgumentCaptor<String> batchId = ArgumentCaptor.forClass(String.class);
+        verify(scanRunService).finish(batchId.capture(), eq(ScanRun.COMPLETED), eq(5), eq(2));
+        verify(scanLeaseService).release(eq("0/1"), notNull());
+        // all chunks and the run duration are recorded under the run's batch
+        verify(scanService, times(3)).scanComponentsForViolations(anyList(), eq(RuleSetSnapshot.EMPTY),
+                eq(batchId.getValue()));
+        assertEquals(1, meterRegistry.get("tracker.scan.run")
+                .tags("batchId", batchId.getValue(), "result", "completed").timer().count());
+    }
+
+    @Test
+    void testOnlyLeasedShardsAreScanned() {
+        scheduler = scheduler(2);
+        when(scanLeaseService.tryAcquire("1/2")).thenReturn(false);
+        List<ComponentLite> components = List.of(new ComponentLite("id-0", "component-0", "main", null));
+        when(componentDomainService.getComponentsToScan(null, null, 0, 2)).thenReturn(components);
+        when(scanService.scanComponentsForViolations(eq(components), eq(RuleSetSnapshot.EMPTY), anyString()))
+                .thenReturn(new EverGreenRuleViolationsScanService.ChunkScanResult(1, 0));
+
+        scheduler.scheduleRuleViolationScan();
+
+        verify(componentDomainService, never()).getComponentsToScan(any(), any(), eq(1), eq(2));
+        verify(scanRunService).finish(anyString(), eq(ScanRun.COMPLETED), eq(1), eq(0));
+        verify(scanLeaseService).release(eq("0/2"), notNull());
+        verify(scanLeaseService, never()).release(eq("1/2"), any());
+    }
+
+    @Test
+    void testLostLeaseStopsTheShardAndLeavesTheRunToBeResumed() {
+        List<ComponentLite> components = List.of(new ComponentLite("id-0", "component-0", "main", null));
+        when(componentDomainService.getComponentsToScan(null, null, 0, 1)).thenReturn(components);
+        when(scanService.scanComponentsForViolations(eq(components), eq(RuleSetSnapshot.EMPTY), anyString()))
+                .thenReturn(new EverGreenRuleViolationsScanService.ChunkScanResult(1, 0));
+        when(scanLeaseService.renew("0/1")).thenReturn(false);
+
+        scheduler.scheduleRuleViolationScan();
+
+        verify(scanRunService, never()).finish(anyString(), anyString(), anyInt(), anyInt());
+        verify(scanWatermarkRepository, never()).save(any());
+        // released without a next scan time, so another replica takes it over right away
+        verify(scanLeaseService).release("0/1", null);
+    }
+
+    @Test
+    void testInterruptedRunResumesAfterItsCursor() {
+        ScanRun interrupted = ScanRun.builder()
+                .batchId("batch-1")
+                .status(ScanRun.RUNNING)
+                .fullScan(true)
+                .ruleSetVersion(RuleSetSnapshot.EMPTY.getVersion())
+                .scanStartedAt(Instant.now().minusSeconds(600))
+                .cursor("id-3")
+                .total(5)
+                .scanned(4)
+                .build();
+        when(scanRunService.findInterrupted("0/1")).thenReturn(Optional.of(interrupted));
+        List<ComponentLite> remaining = List.of(new ComponentLite("id-4", "component-4", "main", null));
+        when(componentDomainService.getComponentsToScan(null, "id-3", 0, 1)).thenReturn(remaining);
+        when(scanRunService.resume(eq(interrupted), any(), eq(1))).thenReturn(interrupted);
+        when(scanService.scanComponentsForViolations(eq(remaining), eq(RuleSetSnapshot.EMPTY), anyString()))
+                .thenReturn(new EverGreenRuleViolationsScanService.ChunkScanResult(1, 0));
+
+        scheduler.scheduleRuleViolationScan();
+
+        verify(scanRunService, never()).start(anyString(), anyString(), any(), anyBoolean(), any(), any(), any(), anyInt());
+        verify(scanRunService).checkpoint("batch-1", "id-4", 5, 0);
+        verify(scanRunService).finish("batch-1", ScanRun.COMPLETED, 5, 0);
+        // the resumed run completes with the watermark of its original start
+        ArgumentCaptor<ScanWatermark> saved = ArgumentCaptor.forClass(ScanWatermark.class);
+        verify(scanWatermarkRepository).save(saved.capture());
+        assertEquals(interrupted.getScanStartedAt(), saved.getValue().getWatermark());
+    }
+
+    @Test
+    void testIncrementalRunReachesBackByTheOverlap() {
+        Instant watermark = Instant.now().minusSeconds(300);
+        when(scanWatermarkRepository.findById(anyString())).thenReturn(Optional.of(ScanWatermark.builder()
+                .watermark(watermark)
+                .ruleSetVersion(RuleSetSnapshot.EMPTY.getVersion())
+                .lastFullScanAt(Instant.now())
+                .build()));
+
+        scheduler.scheduleRuleViolationScan();
+
+        // components stamped shortly before the previous run started but committed after it are selected again
+        verify(componentDomainService).getComponentsToScan(watermark.minus(Duration.ofMinutes(10)), null, 0, 1);
+    }
+
+    @Test
+    void testCursorOnlyMovesOverPartitionsCompletedFromTheStart() {
+        List<ComponentLite> components = IntStream.range(0, 6)
+                .mapToObj(i -> new ComponentLite("id-" + i, "component-" + i, "main", null))
+                .toList();
+        EverGreenRuleViolationScheduler.ScanProgress progress = new EverGreenRuleViolationScheduler.ScanProgress(
+                ScanRun.builder().total(6).build(), "0/1", EverGreenRuleViolationScheduler.partition(components, 2));
+
+        assertNull(progress.completePartition(1));
+        assertEquals("id-3", progress.completePartition(0));
+        assertEquals("id-5", progress.completePartition(2));
+    }
+
+    @Test
+    void testUnchangedRuleSetOnlyScansComponentsUpdatedSinceWatermark() {
+        Instant watermark = Instant.now().minusSeconds(300);
+        when(scanWatermarkRepository.findById(ScanWatermark.VIOLATION_SCAN + ":0/1")).thenReturn(Optional.of(ScanWatermark.builder()
+                .id(ScanWatermark.VIOLATION_SCAN + ":0/1")
+                .watermark(watermark)
+                .ruleSetVersion(RuleSetSnapshot.EMPTY.getVersion())
+                .lastFullScanAt(watermark)
+                .build()));
+        List<ComponentLite> changed = List.of(new ComponentLite("id-1", "component-1", "main", null));
+        when(componentDomainService.getComponentsToScan(watermark, null, 0, 1)).thenReturn(changed);
+        when(scanService.scanComponentsForViolations(eq(changed), eq(RuleSetSnapshot.EMPTY), anyString()))
+                .thenReturn(new EverGreenRuleViolationsScanService.ChunkScanResult(1, 0));
+
+        scheduler.scheduleRuleViolationScan();
+
+        verify(componentDomainService, never()).getComponentsToScan(null, null, 0, 1);
+        ArgumentCaptor<ScanWatermark> saved = ArgumentCaptor.forClass(ScanWatermark.class);
+        verify(scanWatermarkRepository).save(saved.capture());
+        assertTrue(saved.getValue().getWatermark().isAfter(watermark));
+        // an incremental run keeps the time of the last full scan
+        assertEquals(watermark, saved.getValue().getLastFullScanAt());
+    }
+
+    @Test
+    void testFullScanIsDueWithoutStateOnRuleSetChangeOrAfterInterval() {
+        Instant now = Instant.now();
+        ScanWatermark recent = ScanWatermark.builder()
+                .watermark(now.minusSeconds(60)).ruleSetVersion("v1").lastFullScanAt(now.minusSeconds(3600)).build();
+        RuleSetSnapshot v1 = new RuleSetSnapshot("v1", now, Map.of());
+
+        assertTrue(scheduler.isFullScanDue(null, v1, now));
+        assertFalse(scheduler.isFullScanDue(recent, v1, now));
+        assertTrue(scheduler.isFullScanDue(recent, new RuleSetSnapshot("v2", now, Map.of()), now));
+        recent.setLastFullScanAt(now.minus(Duration.ofHours(25)));
+        assertTrue(scheduler.isFullScanDue(recent, v1, now));
+    }
+
+    @Test
+    void testPartition() {
+        List<List<Integer>> partitions = EverGreenRuleViolationScheduler.partition(List.of(1, 2, 3, 4, 5), 2);
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), partitions);
+        assertTrue(EverGreenRuleViolationScheduler.partition(List.of(), 2).isEmpty());
+    }
+}
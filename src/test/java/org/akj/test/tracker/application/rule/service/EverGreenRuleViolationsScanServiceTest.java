@@ -0,0 +1,194 @@
+package org.akj.test.tracker.application.rule.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.model.ComponentMetadata;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService.ComponentLite;
+import org.akj.test.tracker.domain.rule.model.*;
+import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
+import org.akj.test.tracker.infrastructure.storage.rule.RuleViolationRepository;
+import org.akj.test.tracker.infrastructure.utils.ViolationFingerprint;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EverGreenRuleViolationsScanServiceTest {
+
+    private RuleViolationRepository ruleViolationRepository;
+    private MongoTemplate mongoTemplate;
+    private ComponentDomainService componentDomainService;
+    private BulkOperations bulkOps;
+    private SimpleMeterRegistry meterRegistry;
+    private EverGreenRuleViolationsScanService scanService;
+
+    @BeforeEach
+    void setUp() {
+        ruleViolationRepository = mock(RuleViolationRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        componentDomainService = mock(ComponentDomainService.class);
+        bulkOps = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RuleViolation.class)).thenReturn(bulkOps);
+        meterRegistry = new SimpleMeterRegistry();
+        scanService = new EverGreenRuleViolationsScanService(ruleViolationRepository, mongoTemplate,
+                mock(ComponentRepository.class), componentDomainService, mock(RuleSetSnapshotService.class),
+                new ScanMetrics(meterRegistry, 10), meterRegistry);
+    }
+
+    @Test
+    void testChunkIsScannedWithOneQueryPerCollectionAndOneBulkWrite() {
+        RuleSetSnapshot ruleSet = new RuleSetSnapshot("v1", Instant.now(), Map.of(ProgramLanguage.JAVA,
+                List.of(RuleSetSnapshot.CompiledRule.of(rule("rule-1")), RuleSetSnapshot.CompiledRule.of(rule("rule-2")))));
+        AtomicBoolean cursorClosed = new AtomicBoolean();
+        when(componentDomainService.streamComponentsForScan(List.of("c1", "c2", "c3")))
+                .thenReturn(Stream.of(component("c1", "2.7.0"), component("c2", "3.1.0"))
+                        .onClose(() -> cursorClosed.set(true)));
+        RuleViolation existing = RuleViolation.builder()
+                .id("v-1").ruleId("rule-1").componentId("c2").status(ViolationStatus.OPEN).build();
+        when(ruleViolationRepository.findByComponentIdIn(List.of("c1", "c2", "c3"))).thenReturn(List.of(existing));
+
+        EverGreenRuleViolationsScanService.ChunkScanResult result = scanService.scanComponentsForViolations(
+                List.of(lite("c1"), lite("c2"), lite("c3")), ruleSet, "batch-1");
+
+        assertEquals(3, result.scanned());
+        // c3 no longer exists
+        assertEquals(1, result.failed());
+        // c1 violates both rules and gets two new violations
+        verify(bulkOps, times(2)).replaceOne(any(Query.class),
+                argThat((RuleViolation v) -> "c1".equals(v.getComponentId())), any(FindAndReplaceOptions.class));
+        // c2 is compliant now, its existing violation is resolved in place
+        verify(bulkOps).replaceOne(any(Query.class), same(existing));
+        assertEquals(ViolationStatus.RESOLVED, existing.getStatus());
+        verify(bulkOps, times(1)).execute();
+        verify(ruleViolationRepository, never()).findByRuleIdAndComponentId(anyString(), anyString());
+        assertTrue(cursorClosed.get());
+        // two violations opened for c1, one resolved for c2, the rules were evaluated against both components
+        assertEquals(2.0, meterRegistry.get("tracker.scan.violations")
+                .tags("batchId", "batch-1", "transition", "opened").counter().count());
+        assertEquals(1.0, meterRegistry.get("tracker.scan.violations")
+                .tags("batchId", "batch-1", "transition", "resolved").counter().count());
+        assertEquals(2, meterRegistry.get("tracker.scan.component").tag("batchId", "batch-1").timer().count());
+        assertEquals(2, meterRegistry.get("tracker.scan.rule").tags("batchId", "batch-1", "ruleId", "rule-1").timer().count());
+    }
+
+    @Test
+    void testNothingIsWrittenWithoutViolations() {
+        when(componentDomainService.streamComponentsForScan(List.of("c1")))
+                .thenAnswer(invocation -> Stream.of(component("c1", "2.7.0")));
+        when(ruleViolationRepository.findByComponentIdIn(List.of("c1"))).thenReturn(List.of());
+
+        EverGreenRuleViolationsScanService.ChunkScanResult result =
+                scanService.scanComponentsForViolations(List.of(lite("c1")), RuleSetSnapshot.EMPTY, "batch-1");
+
+        assertEquals(0, result.failed());
+        verifyNoInteractions(bulkOps);
+    }
+
+    @Test
+    void testUnchangedViolationsAreNotWrittenAgain() {
+        RuleSetSnapshot ruleSet = new RuleSetSnapshot("v1", Instant.now(), Map.of(ProgramLanguage.JAVA,
+                List.of(RuleSetSnapshot.CompiledRule.of(rule("rule-1")))));
+        when(componentDomainService.streamComponentsForScan(List.of("c1")))
+                .thenAnswer(invocation -> Stream.of(component("c1", "2.7.0")));
+        when(ruleViolationRepository.findByComponentIdIn(List.of("c1"))).thenReturn(List.of());
+
+        // the first scan inserts the violation along with its fingerprint
+        scanService.scanComponentsForViolations(List.of(lite("c1")), ruleSet, "batch-1");
+        ArgumentCaptor<RuleViolation> inserted = ArgumentCaptor.forClass(RuleViolation.class);
+        verify(bulkOps).replaceOne(any(Query.class), inserted.capture(), any(FindAndReplaceOptions.class));
+        RuleViolation stored = inserted.getValue();
+        assertEquals(ViolationFingerprint.of(stored), stored.getFingerprint());
+
+        // the next scan comes to the same result and leaves the stored violation alone
+        stored.setId("v-1");
+        reset(bulkOps);
+        when(ruleViolationRepository.findByComponentIdIn(List.of("c1"))).thenReturn(List.of(stored));
+        scanService.scanComponentsForViolations(List.of(lite("c1")), ruleSet, "batch-1");
+        verifyNoInteractions(bulkOps);
+
+        assertEquals(1.0, meterRegistry.get("tracker.scan.violations.writes").tag("result", "written").counter().count());
+        assertEquals(1.0, meterRegistry.get("tracker.scan.violations.writes").tag("result", "skipped").counter().count());
+    }
+
+    @Test
+    void testNewViolationInsertedConcurrentlyIsReplaced() {
+        RuleSetSnapshot ruleSet = new RuleSetSnapshot("v1", Instant.now(), Map.of(ProgramLanguage.JAVA,
+                List.of(RuleSetSnapshot.CompiledRule.of(rule("rule-1")))));
+        when(componentDomainService.streamComponentsForScan(List.of("c1")))
+                .thenAnswer(invocation -> Stream.of(component("c1", "2.7.0")));
+        when(ruleViolationRepository.findByComponentIdIn(List.of("c1"))).thenReturn(List.of());
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0);
+        when(bulkOps.execute())
+                .thenThrow(new BulkOperationException("duplicate", new MongoBulkWriteException(
+                        BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                        new ServerAddress(), Set.of())))
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+
+        EverGreenRuleViolationsScanService.ChunkScanResult result =
+                scanService.scanComponentsForViolations(List.of(lite("c1")), ruleSet, "batch-1");
+
+        assertEquals(0, result.failed());
+        // upserted on component + rule, the upsert that lost the race replaces the violation the other scan inserted
+        ArgumentCaptor<Query> upsertQuery = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOps).replaceOne(upsertQuery.capture(), any(RuleViolation.class), any(FindAndReplaceOptions.class));
+        assertEquals(new Document("componentId", "c1").append("ruleId", "rule-1"), upsertQuery.getValue().getQueryObject());
+        verify(bulkOps).replaceOne(eq(upsertQuery.getValue()), argThat((RuleViolation v) -> v.getId() == null));
+        verify(bulkOps, times(2)).execute();
+    }
+
+    private static ComponentLite lite(String id) {
+        return new ComponentLite(id, "component-" + id, "main", null);
+    }
+
+    private static ComponentAndDependency component(String id, String bootVersion) {
+        List<Dependency> dependencies = new ArrayList<>();
+        dependencies.add(new Dependency("org.springframework.boot", bootVersion, "compile"));
+        return ComponentAndDependency.builder()
+                .id(id)
+                .language(ProgramLanguage.JAVA)
+                .metadata(ComponentMetadata.builder().name("component-" + id).build())
+                .dependencies(dependencies)
+                .build();
+    }
+
+    private static EverGreenRule rule(String id) {
+        return EverGreenRule.builder()
+                .id(id)
+                .name("rule " + id)
+                .status(RuleStatus.ACTIVE)
+                .ruleDefinition(RuleDefinition.builder()
+                        .language(ProgramLanguage.JAVA)
+                        .target(Target.builder()
+                                .dependencyTarget(new DependencyTarget("org.springframework.boot", "3.0.0",
+                                        VersionOperator.GREATER_EQUAL))
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package org.akj.test.tracker.application.rule.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.akj.test.tracker.application.rule.dto.RuleScanProgressDto;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.common.model.RuntimeType;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService.ComponentLite;
+import org.akj.test.tracker.domain.rule.event.RuleChangedEvent;
+import org.akj.test.tracker.domain.rule.model.*;
+import org.akj.test.tracker.infrastructure.metrics.ScanMetrics;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.rule.RuleViolationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RuleImpactScanServiceTest {
+
+    private EverGreenRuleViolationsScanService scanService;
+    private ComponentDomainService componentDomainService;
+    private RuleSetSnapshotService ruleSetSnapshotService;
+    private RuleViolationRepository ruleViolationRepository;
+    private ArtefactDictionary artefactDictionary;
+    private RuleImpactScanService ruleImpactScanService;
+
+    @BeforeEach
+    void setUp() {
+        scanService = mock(EverGreenRuleViolationsScanService.class);
+        componentDomainService = mock(ComponentDomainService.class);
+        ruleSetSnapshotService = mock(RuleSetSnapshotService.class);
+        ruleViolationRepository = mock(RuleViolationRepository.class);
+        artefactDictionary = mock(ArtefactDictionary.class);
+        ruleImpactScanService = new RuleImpactScanService(scanService, componentDomainService, ruleSetSnapshotService,
+                ruleViolationRepository, artefactDictionary, new ScanMetrics(new SimpleMeterRegistry(), 10),
+                new SyncTaskExecutor(), 2);
+    }
+
+    @Test
+    void testRuleChangeScansOnlyAffectedComponents() {
+        EverGreenRule rule = EverGreenRule.builder()
+                .id("rule-1")
+                .status(RuleStatus.ACTIVE)
+                .ruleDefinition(RuleDefinition.builder()
+                        .language(ProgramLanguage.JAVA)
+                        .target(Target.builder()
+                                .dependencyTarget(new DependencyTarget("org.springframework.boot", "3.0.0",
+                                        VersionOperator.GREATER_EQUAL))
+                                .runtimeTarget(new RuntimeTarget(RuntimeType.JDK, "17", VersionOperator.GREATER_EQUAL))
+                                .build())
+                        .build())
+                .build();
+        RuleSetSnapshot ruleSet = new RuleSetSnapshot("v2", Instant.now(),
+                Map.of(ProgramLanguage.JAVA, List.of(RuleSetSnapshot.CompiledRule.of(rule))));
+        when(ruleSetSnapshotService.snapshotForRun()).thenReturn(ruleSet);
+        when(ruleViolationRepository.findComponentIdsByRuleId("rule-1"))
+                .thenReturn(List.of(RuleViolation.builder().componentId("c1").build()));
+        when(artefactDictionary.findIds(any(Pattern.class))).thenReturn(List.of(7));
+        when(componentDomainService.getComponentsByLanguageAndArtefactIds(ProgramLanguage.JAVA, List.of(7)))
+                .thenReturn(List.of(lite("c1"), lite("c2")));
+        when(componentDomainService.getComponentsByLanguageAndRuntimeType(ProgramLanguage.JAVA, RuntimeType.JDK))
+                .thenReturn(List.of(lite("c3")));
+        when(scanService.scanComponentsForViolations(anyList(), eq(ruleSet), eq("rule-rule-1")))
+                .thenAnswer(invocation -> new EverGreenRuleViolationsScanService.ChunkScanResult(
+                        invocation.<List<ComponentLite>>getArgument(0).size(), 0));
+
+        ruleImpactScanService.onRuleChanged(new RuleChangedEvent("rule-1", Instant.now()));
+
+        verify(artefactDictionary).findIds(argThat((Pattern pattern) ->
+                pattern.matcher("org.springframework.boot:spring-boot").find()
+                        && !pattern.matcher("org.springframeworkXboot").find()));
+        verify(scanService).scanComponentsForViolations(
+                argThat((List<ComponentLite> chunk) -> chunk.size() == 2 && chunk.get(0).id().equals("c1")), eq(ruleSet),
+                eq("rule-rule-1"));
+        verify(scanService).scanComponentsForViolations(
+                argThat((List<ComponentLite> chunk) -> chunk.size() == 1 && chunk.get(0).id().equals("c3")), eq(ruleSet),
+                eq("rule-rule-1"));
+        RuleScanProgressDto progress = ruleImpactScanService.getProgress("rule-1").orElseThrow();
+        assertEquals(RuleImpactScanService.COMPLETED, progress.getStatus());
+        assertEquals(3, progress.getTotal());
+        assertEquals(3, progress.getScanned());
+        assertNotNull(progress.getFinishedAt());
+    }
+
+    @Test
+    void testArchivedRuleOnlyRescansItsViolations() {
+        when(ruleSetSnapshotService.snapshotForRun()).thenReturn(RuleSetSnapshot.EMPTY);
+        when(ruleViolationRepository.findComponentIdsByRuleId("rule-1"))
+                .thenReturn(List.of(RuleViolation.builder().componentId("c1").build()));
+
+        List<ComponentLite> components = ruleImpactScanService.affectedComponents("rule-1", RuleSetSnapshot.EMPTY);
+
+        assertEquals(List.of("c1"), components.stream().map(ComponentLite::id).toList());
+        verifyNoInteractions(componentDomainService, artefactDictionary);
+        assertTrue(ruleImpactScanService.getProgress("unknown").isEmpty());
+    }
+
+    private static ComponentLite lite(String id) {
+        return new ComponentLite(id, "component-" + id, "main", null);
+    }
+}
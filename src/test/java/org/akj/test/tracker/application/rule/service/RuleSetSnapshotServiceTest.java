@@ -0,0 +1,79 @@
+package org.akj.test.tracker.application.rule.service;
+
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.rule.model.DependencyTarget;
+import org.akj.test.tracker.domain.rule.model.EverGreenRule;
+import org.akj.test.tracker.domain.rule.model.RuleDefinition;
+import org.akj.test.tracker.domain.rule.model.RuleSetSnapshot;
+import org.akj.test.tracker.domain.rule.model.RuleStatus;
+import org.akj.test.tracker.domain.rule.model.Target;
+import org.akj.test.tracker.domain.rule.model.VersionOperator;
+import org.akj.test.tracker.infrastructure.storage.rule.EverGreenRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RuleSetSnapshotServiceTest {
+
+    private EverGreenRuleRepository everGreenRuleRepository;
+    private RuleSetSnapshotService ruleSetSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        everGreenRuleRepository = mock(EverGreenRuleRepository.class);
+        ruleSetSnapshotService = new RuleSetSnapshotService(everGreenRuleRepository);
+    }
+
+    @Test
+    void testSnapshotGroupsRulesByLanguageWithResolvedTargets() {
+        when(everGreenRuleRepository.findByStatusIn(RuleSetSnapshotService.SCANNED_STATUSES))
+                .thenReturn(List.of(rule("1", ProgramLanguage.JAVA, RuleStatus.ACTIVE),
+                        rule("2", ProgramLanguage.PYTHON, RuleStatus.DRAFT)));
+
+        RuleSetSnapshot snapshot = ruleSetSnapshotService.snapshotForRun();
+
+        assertEquals(2, snapshot.size());
+        assertEquals("1", snapshot.rulesFor(ProgramLanguage.JAVA).get(0).id());
+        assertEquals("org.springframework.boot", snapshot.rulesFor(ProgramLanguage.JAVA).get(0).dependencyTarget().getArtefact());
+        assertTrue(snapshot.rulesFor(ProgramLanguage.VUE).isEmpty());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.rulesFor(ProgramLanguage.JAVA).add(snapshot.rulesFor(ProgramLanguage.PYTHON).get(0)));
+    }
+
+    @Test
+    void testUnchangedRuleSetKeepsSnapshotAndChangeSwapsIt() {
+        EverGreenRule rule = rule("1", ProgramLanguage.JAVA, RuleStatus.DRAFT);
+        when(everGreenRuleRepository.findByStatusIn(RuleSetSnapshotService.SCANNED_STATUSES)).thenReturn(List.of(rule));
+        RuleSetSnapshot first = ruleSetSnapshotService.snapshotForRun();
+
+        assertSame(first, ruleSetSnapshotService.snapshotForRun());
+
+        EverGreenRule activated = rule("1", ProgramLanguage.JAVA, RuleStatus.ACTIVE);
+        when(everGreenRuleRepository.findByStatusIn(RuleSetSnapshotService.SCANNED_STATUSES)).thenReturn(List.of(activated));
+        RuleSetSnapshot second = ruleSetSnapshotService.snapshotForRun();
+
+        assertNotEquals(first.getVersion(), second.getVersion());
+        assertSame(second, ruleSetSnapshotService.current());
+        // the snapshot a running scan holds is never altered
+        assertEquals(RuleStatus.DRAFT, first.rulesFor(ProgramLanguage.JAVA).get(0).status());
+    }
+
+    private static EverGreenRule rule(String id, ProgramLanguage language, RuleStatus status) {
+        return EverGreenRule.builder()
+                .id(id)
+                .status(status)
+                .checksum("checksum-" + id)
+                .ruleDefinition(RuleDefinition.builder()
+                        .language(language)
+                        .target(Target.builder()
+                                .dependencyTarget(new DependencyTarget("org.springframework.boot", "3.0.0",
+                                        VersionOperator.GREATER_EQUAL))
+                                .build())
+                        .build())
+                .build();
+    }
+}
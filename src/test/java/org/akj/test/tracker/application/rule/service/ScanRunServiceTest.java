@@ -0,0 +1,49 @@
+package org.akj.test.tracker.application.rule.service;
+
+import org.akj.test.tracker.application.rule.dto.ScanRunDto;
+import org.akj.test.tracker.domain.rule.model.ScanRun;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScanRunServiceTest {
+
+    @Test
+    void testThroughputAndEtaOfResumedRun() {
+        Instant resumedAt = Instant.now().minusSeconds(10);
+        ScanRun run = ScanRun.builder()
+                .batchId("batch-1")
+                .status(ScanRun.RUNNING)
+                .total(1000)
+                .scannedBeforeResume(400)
+                .scanned(600)
+                .startedAt(resumedAt.minusSeconds(3600))
+                .resumedAt(resumedAt)
+                .build();
+
+        ScanRunDto dto = ScanRunService.toDto(run);
+
+        // 200 components in the 10 seconds since the resume, the hour before doesn't count
+        assertEquals(20.0, dto.getThroughput(), 1.0);
+        assertEquals(20L, dto.getEtaSeconds(), 2L);
+    }
+
+    @Test
+    void testFinishedRunHasNoEta() {
+        Instant startedAt = Instant.now().minusSeconds(100);
+        ScanRun run = ScanRun.builder()
+                .status(ScanRun.COMPLETED)
+                .total(100)
+                .scanned(100)
+                .startedAt(startedAt)
+                .finishedAt(startedAt.plusSeconds(50))
+                .build();
+
+        ScanRunDto dto = ScanRunService.toDto(run);
+
+        assertEquals(2.0, dto.getThroughput(), 0.01);
+        assertNull(dto.getEtaSeconds());
+    }
+}
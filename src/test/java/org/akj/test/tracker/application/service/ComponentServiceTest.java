@@ -1,14 +1,20 @@
 package org.akj.test.tracker.application.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.akj.test.tracker.application.component.dto.ComponentAndDependencyDto;
+import org.akj.test.tracker.application.component.dto.ComponentBatchUploadResponse;
 import org.akj.test.tracker.application.component.dto.ComponentDto;
 import org.akj.test.tracker.application.component.dto.DependencyDto;
+import org.akj.test.tracker.application.component.dto.UploadOutcome;
 import org.akj.test.tracker.application.component.mapper.ComponentAppMapstructMapper;
+import org.akj.test.tracker.application.component.service.ComponentChecksumCache;
 import org.akj.test.tracker.application.component.service.ComponentService;
+import org.akj.test.tracker.application.component.service.ComponentUploadMetrics;
+import org.akj.test.tracker.domain.component.event.ComponentDependenciesChangedEvent;
 import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
 import org.akj.test.tracker.domain.component.model.ComponentMetadata;
 import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
 import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,9 +22,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,20 +37,29 @@ class ComponentServiceTest {
     @Mock
     private ComponentRepository componentRepository;
 
-    @Spy
-    private ObjectMapper objectMapper = new ObjectMapper();
+    @Mock
+    private ComponentDomainService componentDomainService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private ComponentService componentService;
 
+    private SimpleMeterRegistry meterRegistry;
+
     @Spy
     private ComponentAppMapstructMapper componentAppMapstructMapper = ComponentAppMapstructMapper.INSTANCE;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
         componentService = new ComponentService(
                 componentRepository,
+                componentDomainService,
                 componentAppMapstructMapper,
-                objectMapper
+                new ComponentUploadMetrics(meterRegistry),
+                new ComponentChecksumCache(meterRegistry, 100, Duration.ofMinutes(10)),
+                eventPublisher
         );
         // 初始化测试数据
         getComponentAndDependencyDto();
@@ -61,45 +80,36 @@ class ComponentServiceTest {
     @Test
     void testSaveNewComponent() {
         // 模拟组件不存在
-        when(componentRepository.findByComponentIdAndBranch(anyString(), anyString()))
-                .thenReturn(null);
+        when(componentDomainService.upsertComponent(any(ComponentAndDependency.class)))
+                .thenReturn(ComponentDomainService.UpsertResult.INSERTED);
 
         ComponentAndDependencyDto testDto = getComponentAndDependencyDto();
 
         // 执行测试
         componentService.saveComponentAndDependency(testDto);
 
-        // 验证调用次数
-        verify(componentRepository, times(1)).save(any(ComponentAndDependency.class));
+        // one atomic upsert, no separate lookup or save
+        verify(componentDomainService, times(1)).upsertComponent(
+                argThat(component -> "940a8fc1b9af8172".equals(component.getChecksum())));
+        verify(componentRepository, never()).findByComponentIdAndBranch(anyString(), anyString());
+        verify(componentRepository, never()).save(any(ComponentAndDependency.class));
+        assertEquals(1.0, meterRegistry.get("tracker.component.upload").tag("outcome", "inserted").counter().count());
     }
 
     @Test
     void testSaveExistingComponentWithSameDependencies() {
-        // 模拟现有组件
-        ComponentAndDependency existing = new ComponentAndDependency();
-        existing.setId("test-id");
-        existing.setComponentId("test-package-info");
-        existing.setBranch("main");
-        existing.setChecksum("3bafbdf90833453b");
-        existing.setMetadata(ComponentMetadata.builder()
-                .sourceCodeUrl("https://example.com/test-component")
-                .name("test-component")
-                .build());
-        existing.setDependencies(List.of(
-                new Dependency("dep1", "1.0.0", "compile"),
-                new Dependency("dep2", "2.0.0", "compile")
-        ));
+        // the checksum guarded upsert matched nothing and collided with the existing document
+        when(componentDomainService.upsertComponent(any(ComponentAndDependency.class)))
+                .thenReturn(ComponentDomainService.UpsertResult.UNCHANGED);
 
         ComponentAndDependencyDto testDto = getComponentAndDependencyDto();
 
-        when(componentRepository.findByComponentIdAndBranch(anyString(), anyString()))
-                .thenReturn(existing);
-
         // 执行测试
         componentService.saveComponentAndDependency(testDto);
 
         // 验证未调用保存
         verify(componentRepository, never()).save(any(ComponentAndDependency.class));
+        assertEquals(1.0, meterRegistry.get("tracker.component.upload").tag("outcome", "unchanged").counter().count());
     }
 
     private static ComponentAndDependencyDto getComponentAndDependencyDto() {
@@ -121,31 +131,129 @@ class ComponentServiceTest {
         return testDto;
     }
 
+    @Test
+    void testRepeatedUnchangedUploadIsStillWritten() {
+        when(componentDomainService.upsertComponent(any(ComponentAndDependency.class)))
+                .thenReturn(ComponentDomainService.UpsertResult.INSERTED, ComponentDomainService.UpsertResult.UPDATED);
+
+        componentService.saveComponentAndDependency(getComponentAndDependencyDto());
+        componentService.saveComponentAndDependency(getComponentAndDependencyDto());
+
+        // another replica may have written a different checksum in between, only the guarded upsert can tell
+        verify(componentDomainService, times(2)).upsertComponent(any(ComponentAndDependency.class));
+        assertEquals(1.0, meterRegistry.get("tracker.component.upload").tag("outcome", "updated").counter().count());
+    }
+
+    @Test
+    void testBatchCacheHitSkipsLookupButNotWrite() {
+        when(componentDomainService.upsertComponent(any(ComponentAndDependency.class)))
+                .thenReturn(ComponentDomainService.UpsertResult.INSERTED);
+        when(componentDomainService.bulkSaveComponents(anyList(), anyList(), anyList()))
+                .thenReturn(new ComponentDomainService.BulkSaveResult(List.of(),
+                        List.of(ComponentDomainService.UpsertResult.UNCHANGED)));
+        componentService.saveComponentAndDependency(getComponentAndDependencyDto());
+
+        ComponentBatchUploadResponse response =
+                componentService.saveComponentsAndDependencies(List.of(getComponentAndDependencyDto()));
+
+        assertEquals(1, response.getUnchanged());
+        verify(componentDomainService, never()).findChecksumsByComponentIdAndBranchIn(anyCollection(), anyCollection());
+        verify(componentDomainService).bulkSaveComponents(eq(List.of()), eq(List.of()),
+                argThat(expected -> expected.size() == 1 && "940a8fc1b9af8172".equals(expected.get(0).getChecksum())));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ComponentChecksumCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
     @Test
     void testSaveExistingComponentWithChangedDependencies() {
-        // 模拟现有组件有不同依赖
-        ComponentAndDependency existing = new ComponentAndDependency();
-        existing.setId("test-id");
-        existing.setComponentId("test-component");
-        existing.setBranch("main");
-        existing.setMetadata(ComponentMetadata.builder()
-                .sourceCodeUrl("https://example.com/test-component")
-                .name("test-component")
-                .build());
-        existing.setDependencies(List.of(
-                new Dependency("dep1", "1.0.1", "compile"),
-                new Dependency("dep2", "2.0.0", "compile")
-        ));
+        when(componentDomainService.upsertComponent(any(ComponentAndDependency.class)))
+                .thenReturn(ComponentDomainService.UpsertResult.UPDATED);
+
+        var testDto = getComponentAndDependencyDto();
+
+        // 执行测试
+        componentService.saveComponentAndDependency(testDto);
 
-        when(componentRepository.findByComponentIdAndBranch(anyString(), anyString()))
+        verify(componentDomainService, times(1)).upsertComponent(any(ComponentAndDependency.class));
+        assertEquals(1.0, meterRegistry.get("tracker.component.upload").tag("outcome", "updated").counter().count());
+        verify(eventPublisher, times(1)).publishEvent(any(ComponentDependenciesChangedEvent.class));
+    }
+
+    @Test
+    void testSaveComponentWithoutComponentIdFallsBackToMetadataLookup() {
+        when(componentRepository.findByMetadataNameAndSourceCodeUrlAndBranch(any(), anyString(), anyString()))
                 .thenReturn(null);
 
         var testDto = getComponentAndDependencyDto();
+        testDto.setComponentId(null);
 
-        // 执行测试
         componentService.saveComponentAndDependency(testDto);
 
-        // 验证调用保存
-        verify(componentRepository, times(1)).save(any(ComponentAndDependency.class));
+        verify(componentDomainService, times(1)).saveComponent(any(ComponentAndDependency.class), isNull());
+        verify(componentDomainService, never()).upsertComponent(any(ComponentAndDependency.class));
+    }
+
+    @Test
+    void testSaveBatchReportsOutcomePerComponent() {
+        ComponentAndDependencyDto unchanged = getComponentAndDependencyDto();
+        ComponentAndDependencyDto changed = getComponentAndDependencyDto();
+        changed.setComponentId("changed-package-info");
+        ComponentAndDependencyDto inserted = getComponentAndDependencyDto();
+        inserted.setComponentId("new-package-info");
+
+        ComponentAndDependency existingUnchanged = ComponentAndDependency.builder()
+                .id("unchanged-id").componentId("test-package-info").branch("main").checksum("940a8fc1b9af8172").build();
+        ComponentAndDependency existingChanged = ComponentAndDependency.builder()
+                .id("changed-id").componentId("changed-package-info").branch("main").checksum("stale").build();
+        when(componentDomainService.findChecksumsByComponentIdAndBranchIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(existingUnchanged, existingChanged));
+        when(componentDomainService.bulkSaveComponents(anyList(), anyList(), anyList()))
+                .thenReturn(new ComponentDomainService.BulkSaveResult(List.of(), List.of()));
+
+        ComponentBatchUploadResponse response =
+                componentService.saveComponentsAndDependencies(List.of(unchanged, changed, inserted));
+
+        assertEquals(1, response.getInserted());
+        assertEquals(1, response.getUpdated());
+        assertEquals(1, response.getUnchanged());
+        assertEquals(UploadOutcome.UNCHANGED, response.getResults().get(0).getOutcome());
+        assertEquals(UploadOutcome.UPDATED, response.getResults().get(1).getOutcome());
+        assertEquals(UploadOutcome.INSERTED, response.getResults().get(2).getOutcome());
+        verify(componentDomainService, times(1)).findChecksumsByComponentIdAndBranchIn(anyCollection(), anyCollection());
+        verify(componentDomainService, times(1)).bulkSaveComponents(
+                argThat(inserts -> inserts.size() == 1 && "new-package-info".equals(inserts.get(0).getComponentId())),
+                argThat(updates -> updates.size() == 1 && "changed-id".equals(updates.get(0).getId())),
+                eq(List.of()));
+        verify(componentRepository, never()).save(any(ComponentAndDependency.class));
+        // the unchanged component doesn't trigger a violation scan
+        verify(eventPublisher, times(2)).publishEvent(any(ComponentDependenciesChangedEvent.class));
+    }
+
+    @Test
+    void testSaveBatchRetriesComponentInsertedConcurrently() {
+        ComponentAndDependencyDto inserted = getComponentAndDependencyDto();
+        inserted.setComponentId("new-package-info");
+        // another upload inserted the same component between the lookup and the bulk write
+        when(componentDomainService.bulkSaveComponents(anyList(), anyList(), anyList()))
+                .thenAnswer(invocation -> new ComponentDomainService.BulkSaveResult(
+                        List.copyOf(invocation.<List<ComponentAndDependency>>getArgument(0)), List.of()));
+        when(componentDomainService.upsertComponent(any(ComponentAndDependency.class)))
+                .thenReturn(ComponentDomainService.UpsertResult.UNCHANGED);
+
+        ComponentBatchUploadResponse response = componentService.saveComponentsAndDependencies(List.of(inserted));
+
+        assertEquals(0, response.getInserted());
+        assertEquals(1, response.getUnchanged());
+        assertEquals(UploadOutcome.UNCHANGED, response.getResults().get(0).getOutcome());
+        verify(componentDomainService).upsertComponent(argThat(component -> "new-package-info".equals(component.getComponentId())));
+        verify(eventPublisher, never()).publishEvent(any(ComponentDependenciesChangedEvent.class));
+    }
+
+    @Test
+    void testSaveBatchRejectsDuplicateComponents() {
+        List<ComponentAndDependencyDto> batch = List.of(getComponentAndDependencyDto(), getComponentAndDependencyDto());
+
+        assertThrows(IllegalArgumentException.class, () -> componentService.saveComponentsAndDependencies(batch));
+        verifyNoInteractions(componentDomainService);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package org.akj.test.tracker.application.service;
+
+import jakarta.validation.ConstraintViolationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.akj.test.tracker.application.component.dto.ComponentUploadResult;
+import org.akj.test.tracker.application.component.dto.UploadOutcome;
+import org.akj.test.tracker.application.component.mapper.ComponentAppMapstructMapper;
+import org.akj.test.tracker.application.component.service.ComponentChecksumCache;
+import org.akj.test.tracker.application.component.service.ComponentStreamIngestService;
+import org.akj.test.tracker.application.component.service.ComponentUploadMetrics;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService;
+import org.akj.test.tracker.infrastructure.config.JsonConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ComponentStreamIngestServiceTest {
+    private static final String COMPONENT_LINE = "{\"component\":{\"name\":\"test-component\","
+            + "\"sourceCodeUrl\":\"https://example.com/test-component\"},\"componentId\":\"test-package-info\","
+            + "\"branch\":\"main\",\"compiler\":\"jdk17\",\"runtimeInfo\":{\"type\":\"JDK\",\"version\":\"17\"},"
+            + "\"language\":\"JAVA\",\"buildManager\":\"MAVEN\"}\n";
+    private static final String DEPENDENCY_LINES = "{\"artefact\":\"dep1\",\"version\":\"1.0.0\"}\n"
+            + "{\"artefact\":\"dep2\",\"version\":\"2.0.0\"}\n"
+            + "{\"artefact\":\"dep3\",\"version\":\"3.0.0\"}\n";
+
+    @Mock
+    private ComponentDomainService componentDomainService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ComponentStreamIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        JsonConfig jsonConfig = new JsonConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new ComponentStreamIngestService(
+                componentDomainService,
+                ComponentAppMapstructMapper.INSTANCE,
+                jsonConfig.objectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ComponentUploadMetrics(meterRegistry),
+                new ComponentChecksumCache(meterRegistry, 100, Duration.ofMinutes(10)),
+                eventPublisher,
+                2);
+    }
+
+    @Test
+    void insertsNewComponentAndStagesDependenciesInChunks() throws IOException {
+        when(componentDomainService.commitStagedDependencies(anyString(), any(ComponentAndDependency.class), isNull()))
+                .thenReturn(ComponentDomainService.UpsertResult.INSERTED);
+
+        ComponentUploadResult result = service.ingest(ndjson(COMPONENT_LINE + DEPENDENCY_LINES));
+
+        assertEquals(UploadOutcome.INSERTED, result.getOutcome());
+        // three dependencies with chunk size two: one full chunk and one remainder, both under the same upload id
+        ArgumentCaptor<String> uploadId = ArgumentCaptor.forClass(String.class);
+        verify(componentDomainService).stageDependencies(uploadId.capture(), eq(0), argThat(chunk -> chunk.size() == 2));
+        verify(componentDomainService).stageDependencies(eq(uploadId.getValue()), eq(1), argThat(chunk -> chunk.size() == 1));
+        ArgumentCaptor<ComponentAndDependency> committed = ArgumentCaptor.forClass(ComponentAndDependency.class);
+        verify(componentDomainService).commitStagedDependencies(eq(uploadId.getValue()), committed.capture(), isNull());
+        assertNull(committed.getValue().getId());
+        assertEquals(result.getChecksum(), committed.getValue().getChecksum());
+    }
+
+    @Test
+    void stagesOneEmptyChunkForUploadWithoutDependencies() throws IOException {
+        when(componentDomainService.commitStagedDependencies(anyString(), any(ComponentAndDependency.class), isNull()))
+                .thenReturn(ComponentDomainService.UpsertResult.INSERTED);
+
+        service.ingest(ndjson(COMPONENT_LINE));
+
+        verify(componentDomainService).stageDependencies(anyString(), eq(0), eq(List.of()));
+    }
+
+    @Test
+    void discardsStagedDependenciesWhenChecksumIsUnchanged() throws IOException {
+        // checksum of dep1@1.0.0 + dep2@2.0.0, see ComponentServiceTest
+        when(componentDomainService.findChecksumByComponentIdAndBranch("test-package-info", "main"))
+                .thenReturn(ComponentAndDependency.builder().id("existing-id").checksum("940a8fc1b9af8172").build());
+
+        ComponentUploadResult result = service.ingest(ndjson(COMPONENT_LINE
+                + "{\"artefact\":\"dep1\",\"version\":\"1.0.0\"}\n{\"artefact\":\"dep2\",\"version\":\"2.0.0\"}\n"));
+
+        assertEquals(UploadOutcome.UNCHANGED, result.getOutcome());
+        verify(componentDomainService).discardStagedDependencies(anyString());
+        verify(componentDomainService, never()).commitStagedDependencies(anyString(), any(), any());
+    }
+
+    @Test
+    void discardsStagedDependenciesWhenDependencyLineIsInvalid() {
+        assertThrows(ConstraintViolationException.class,
+                () -> service.ingest(ndjson(COMPONENT_LINE + "{\"artefact\":\"dep1\"}\n")));
+        verify(componentDomainService).discardStagedDependencies(anyString());
+        verify(componentDomainService, never()).commitStagedDependencies(anyString(), any(), any());
+    }
+
+    private static InputStream ndjson(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,109 @@
+package org.akj.test.tracker.benchmark;
+
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.infrastructure.storage.component.cold.PackedDependencyCodec;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.DependencyReadingConverter;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.DependencyWritingConverter;
+import org.akj.test.tracker.infrastructure.storage.component.scan.RawComponentReader;
+import org.bson.BsonBinaryReader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a scanned component the mapped way (driver decodes the BSON into a {@link Document}, Spring Data
+ * maps it into {@link ComponentAndDependency} through the dependency converters) with the {@link RawComponentReader}
+ * reading the raw BSON directly. Both start from the bytes of the projected document a scan receives. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.akj.test.tracker.benchmark.ComponentReadingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentReadingBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int dependencyCount;
+
+    private RawBsonDocument document;
+    private DocumentCodec documentCodec;
+    private MappingMongoConverter converter;
+    private RawComponentReader rawComponentReader;
+
+    @Setup
+    public void setUp() {
+        // dictionary served from memory, the cache is what a warmed up instance uses as well
+        ArtefactDictionary artefactDictionary = new ArtefactDictionary(null) {
+            @Override
+            public int idOf(String artefact) {
+                return Integer.parseInt(artefact.substring("artefact-".length()));
+            }
+
+            @Override
+            public String artefactOf(int id) {
+                return "artefact-" + id;
+            }
+        };
+
+        List<Document> dependencies = new ArrayList<>(dependencyCount);
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.add(new Document(DependencyWritingConverter.ARTEFACT_ID, i).append("version", "1.2." + i));
+        }
+        documentCodec = new DocumentCodec();
+        document = new RawBsonDocument(new Document("_id", new ObjectId())
+                .append("metadata", new Document("name", "component"))
+                .append("runtimeInfo", new Document("type", "JDK").append("version", "17.0.2"))
+                .append("language", "JAVA")
+                .append("dependencies", dependencies), documentCodec);
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of(
+                new DependencyWritingConverter(artefactDictionary),
+                new DependencyReadingConverter(artefactDictionary)));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        rawComponentReader = new RawComponentReader(artefactDictionary, new PackedDependencyCodec(artefactDictionary));
+    }
+
+    @Benchmark
+    public ComponentAndDependency mapped() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(document.getByteBuffer().asNIO())) {
+            Document decoded = documentCodec.decode(reader, DecoderContext.builder().build());
+            return converter.read(ComponentAndDependency.class, decoded);
+        }
+    }
+
+    @Benchmark
+    public ComponentAndDependency raw() {
+        return rawComponentReader.read(document);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ComponentReadingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
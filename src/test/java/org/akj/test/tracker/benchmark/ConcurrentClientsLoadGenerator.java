@@ -0,0 +1,112 @@
+package org.akj.test.tracker.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load generator, a {@code main()} program that is not run by the test phase: every client sends its
+ * next request as soon as the previous one completes, so the number of requests in flight equals the number of
+ * clients. Compare a platform thread run ({@code mvn spring-boot:run}) with a virtual thread run
+ * ({@code mvn -Pjava21 spring-boot:run}) by pointing this at each instance, exec-maven-plugin is configured in the pom
+ * to run it from the test classpath:
+ * <pre>
+ * mvn test-compile exec:java \
+ *     -Dexec.mainClass=org.akj.test.tracker.benchmark.ConcurrentClientsLoadGenerator \
+ *     -Dexec.args="http://localhost:8080/api/v1/dependencies/facets/versions 2000 60"
+ * </pre>
+ * Arguments: url, clients (default 2000), duration in seconds (default 60). Reports throughput, status codes and
+ * latency percentiles. Facet endpoints are blocking Mongo reads end to end, which is where the thread model matters.
+ */
+public class ConcurrentClientsLoadGenerator {
+    private static final int LATENCY_SAMPLES = 1 << 20;
+
+    private final HttpClient httpClient;
+    private final HttpRequest request;
+    private final long deadline;
+    private final LongAdder completed = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private final AtomicInteger sampleIndex = new AtomicInteger();
+    private final AtomicLong errors = new AtomicLong();
+
+    ConcurrentClientsLoadGenerator(URI uri, long durationNanos) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        this.deadline = System.nanoTime() + durationNanos;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/v1/dependencies/facets/versions");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+
+        ConcurrentClientsLoadGenerator loadGenerator =
+                new ConcurrentClientsLoadGenerator(uri, Duration.ofSeconds(seconds).toNanos());
+        System.out.printf("Running %d clients against %s for %ds%n", clients, uri, seconds);
+        long start = System.nanoTime();
+        loadGenerator.run(clients);
+        loadGenerator.report(System.nanoTime() - start);
+    }
+
+    void run(int clients) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            next(done);
+        }
+        done.await();
+    }
+
+    private void next(CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long sentAt = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        errors.incrementAndGet();
+                    } else {
+                        statusCodes.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                        completed.increment();
+                        int index = sampleIndex.getAndIncrement();
+                        if (index < LATENCY_SAMPLES) {
+                            latencies[index] = System.nanoTime() - sentAt;
+                        }
+                    }
+                    next(done);
+                });
+    }
+
+    void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long[] samples = Arrays.copyOf(latencies, Math.min(sampleIndex.get(), LATENCY_SAMPLES));
+        Arrays.sort(samples);
+        System.out.printf("Completed: %d, errors: %d, throughput: %.1f req/s%n",
+                completed.sum(), errors.get(), completed.sum() / seconds);
+        System.out.printf("Status codes: %s%n", statusCodes);
+        System.out.printf("Latency ms p50: %.1f, p90: %.1f, p99: %.1f, max: %.1f%n",
+                percentile(samples, 0.50), percentile(samples, 0.90), percentile(samples, 0.99),
+                percentile(samples, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,66 @@
+package org.akj.test.tracker.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.infrastructure.config.JsonConfig;
+import org.akj.test.tracker.infrastructure.utils.DependencyChecksum;
+import org.akj.test.tracker.infrastructure.utils.XxHashUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the previous checksum (ordered mapper JSON string, byte[] copy, one-shot XXH64) with the canonical
+ * streaming {@link DependencyChecksum}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.akj.test.tracker.benchmark.DependencyChecksumBenchmark}
+ * and compare the gc.alloc.rate.norm columns for the allocation difference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyChecksumBenchmark {
+
+    @Param({"50", "1000", "20000"})
+    private int dependencyCount;
+
+    private ObjectMapper orderedObjectMapper;
+    private List<Dependency> dependencies;
+
+    @Setup
+    public void setUp() {
+        orderedObjectMapper = new JsonConfig().orderedObjectMapper();
+        dependencies = new ArrayList<>(dependencyCount);
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.add(new Dependency("org.example.group" + (i % 50) + ":artifact-" + i,
+                    (i % 7) + "." + (i % 13) + "." + (i % 5), i % 3 == 0 ? "test" : "compile"));
+        }
+    }
+
+    @Benchmark
+    public String orderedJsonChecksum() throws JsonProcessingException {
+        return XxHashUtils.hash(orderedObjectMapper.writeValueAsString(dependencies));
+    }
+
+    @Benchmark
+    public String canonicalStreamingChecksum() {
+        return DependencyChecksum.of(dependencies);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DependencyChecksumBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
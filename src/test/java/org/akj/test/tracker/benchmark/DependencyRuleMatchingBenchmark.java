@@ -0,0 +1,81 @@
+package org.akj.test.tracker.benchmark;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.rule.model.ArtefactPrefixIndex;
+import org.akj.test.tracker.domain.rule.model.DependencyTarget;
+import org.akj.test.tracker.domain.rule.model.VersionOperator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching a component's dependencies against dependency rules by comparing every dependency with every
+ * rule target ({@code startsWith}) with one lookup per dependency in an {@link ArtefactPrefixIndex}. The linear
+ * match grows with dependencies x rules, the index lookup with dependencies only. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.akj.test.tracker.benchmark.DependencyRuleMatchingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DependencyRuleMatchingBenchmark {
+
+    @Param({"50", "500"})
+    private int dependencyCount;
+
+    @Param({"10", "100", "1000"})
+    private int ruleCount;
+
+    private List<Dependency> dependencies;
+    private List<DependencyTarget> targets;
+    private ArtefactPrefixIndex<DependencyTarget> index;
+
+    @Setup
+    public void setUp() {
+        dependencies = new ArrayList<>(dependencyCount);
+        for (int i = 0; i < dependencyCount; i++) {
+            dependencies.add(new Dependency("org.example.group" + (i % 50) + ":artifact-" + i, "1.0." + i, "compile"));
+        }
+        targets = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            // a mix of group-wide prefixes and exact artefacts, most of them not used by the component
+            String artefact = i % 4 == 0 ? "org.example.group" + i : "org.example.group" + (i % 50) + ":artifact-" + i;
+            targets.add(new DependencyTarget(artefact, "2.0.0", VersionOperator.GREATER_EQUAL));
+        }
+        index = ArtefactPrefixIndex.of(targets, DependencyTarget::getArtefact);
+    }
+
+    @Benchmark
+    public void linearStartsWith(Blackhole blackhole) {
+        for (DependencyTarget target : targets) {
+            for (Dependency dependency : dependencies) {
+                if (dependency.getArtefact().startsWith(target.getArtefact())) {
+                    blackhole.consume(target);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void prefixIndexLookup(Blackhole blackhole) {
+        for (Dependency dependency : dependencies) {
+            index.forEachMatch(dependency.getArtefact(), blackhole::consume);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DependencyRuleMatchingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,64 @@
+package org.akj.test.tracker.benchmark;
+
+import org.akj.test.tracker.domain.common.util.ParsedVersion;
+import org.akj.test.tracker.domain.common.util.VersionComparator;
+import org.akj.test.tracker.domain.rule.model.VersionOperator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking a batch of dependency versions against a target through the {@link VersionComparator} parse
+ * cache with parsing both versions on every comparison, which is what the comparator did before the cache. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.akj.test.tracker.benchmark.VersionComparisonBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionComparisonBenchmark {
+
+    @Param({"GREATER_EQUAL", "CARET"})
+    private VersionOperator operator;
+
+    private String[] versions;
+
+    @Setup
+    public void setUp() {
+        versions = new String[500];
+        for (int i = 0; i < versions.length; i++) {
+            // a few hundred distinct versions, like the dependencies of a fleet
+            versions[i] = (i % 4) + "." + (i % 13) + "." + i + (i % 5 == 0 ? "-SNAPSHOT" : "");
+        }
+    }
+
+    @Benchmark
+    public void cachedParse(Blackhole blackhole) {
+        for (String version : versions) {
+            blackhole.consume(VersionComparator.isVersionCompliant(version, "2.5.0", operator));
+        }
+    }
+
+    @Benchmark
+    public void parseEveryComparison(Blackhole blackhole) {
+        for (String version : versions) {
+            ParsedVersion current = ParsedVersion.parse(version);
+            ParsedVersion target = ParsedVersion.parse("2.5.0");
+            blackhole.consume(VersionComparator.isVersionCompliant(current, target, operator));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VersionComparisonBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
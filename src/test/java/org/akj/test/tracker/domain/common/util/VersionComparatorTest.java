@@ -0,0 +1,89 @@
+package org.akj.test.tracker.domain.common.util;
+
+import org.akj.test.tracker.domain.rule.model.VersionOperator;
+import org.junit.jupiter.api.Test;
+
+import static org.akj.test.tracker.domain.rule.model.VersionOperator.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionComparatorTest {
+
+    @Test
+    void testComparisonOperatorsPadMissingPartsWithZero() {
+        assertTrue(compliant("1.2", "1.2.0", EQUAL));
+        assertFalse(compliant("1.2.1", "1.2", EQUAL));
+        assertTrue(compliant("1.10.0", "1.9.9", GREATER));
+        assertFalse(compliant("1.2.0", "1.2", GREATER));
+        assertTrue(compliant("1.2.0", "1.2", GREATER_EQUAL));
+        assertTrue(compliant("0.9.9", "1", LESS));
+        assertTrue(compliant("1.0", "1.0.0", LESS_EQUAL));
+        assertFalse(compliant("1.0.1", "1.0.0", LESS_EQUAL));
+    }
+
+    @Test
+    void testSuffixIsIgnored() {
+        assertTrue(compliant("2.0.0-SNAPSHOT", "2.0.0", EQUAL));
+        assertTrue(compliant("3.1.0-RC1", "3.0.0-M2", GREATER));
+    }
+
+    @Test
+    void testTilde() {
+        assertTrue(compliant("1.2.5", "1.2.3", TILDE));
+        assertFalse(compliant("1.3.0", "1.2.3", TILDE));
+        assertFalse(compliant("1.2.2", "1.2.3", TILDE));
+        assertTrue(compliant("1.9.0", "1", TILDE));
+        assertFalse(compliant("2.0.0", "1", TILDE));
+        // a current version without a minor part has minor 0
+        assertTrue(compliant("1", "1.0", TILDE));
+    }
+
+    @Test
+    void testCaret() {
+        assertTrue(compliant("1.9.0", "1.2.3", CARET));
+        assertFalse(compliant("2.0.0", "1.2.3", CARET));
+        assertTrue(compliant("0.2.9", "0.2.3", CARET));
+        assertFalse(compliant("0.3.0", "0.2.3", CARET));
+        assertTrue(compliant("0.0.3", "0.0.3", CARET));
+        assertFalse(compliant("0.0.4", "0.0.3", CARET));
+        assertFalse(compliant("0.0.1", "0.0", CARET));
+    }
+
+    @Test
+    void testInvalidVersionsAreNotCompliant() {
+        assertFalse(compliant(null, "1.0.0", GREATER_EQUAL));
+        assertFalse(compliant("1.0.0", null, GREATER_EQUAL));
+        assertFalse(compliant("latest", "1.0.0", GREATER_EQUAL));
+        assertFalse(compliant("1.0.0.RELEASE", "1.0.0", GREATER_EQUAL));
+        assertFalse(compliant("1.0-beta-1", "1.0", GREATER_EQUAL));
+        assertFalse(compliant("99999999999.0", "1.0", GREATER_EQUAL));
+    }
+
+    @Test
+    void testParseIsCached() {
+        ParsedVersion parsed = VersionComparator.parse("4.5.6-alpha");
+
+        assertSame(parsed, VersionComparator.parse("4.5.6-alpha"));
+        assertEquals("4.5.6", parsed.toString());
+        assertEquals(3, parsed.length());
+        assertEquals(0, parsed.part(3));
+        assertNull(VersionComparator.parse("4.x"));
+    }
+
+    @Test
+    void testEqualsIsConsistentWithCompareTo() {
+        ParsedVersion shortForm = VersionComparator.parse("1.2");
+        ParsedVersion longForm = VersionComparator.parse("1.2.0");
+
+        assertEquals(shortForm, longForm);
+        assertEquals(shortForm.hashCode(), longForm.hashCode());
+        assertNotEquals(shortForm, VersionComparator.parse("1.2.1"));
+        assertEquals(VersionComparator.parse("0"), VersionComparator.parse("0.0.0"));
+        // the written parts are still kept for ~ and ^
+        assertEquals(2, shortForm.length());
+        assertEquals(3, longForm.length());
+    }
+
+    private static boolean compliant(String current, String target, VersionOperator operator) {
+        return VersionComparator.isVersionCompliant(current, target, operator);
+    }
+}
@@ -0,0 +1,98 @@
+package org.akj.test.tracker.domain.component.service;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.service.ComponentDomainService.UpsertResult;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.akj.test.tracker.infrastructure.storage.component.repository.ComponentRepository;
+import org.akj.test.tracker.infrastructure.storage.component.scan.RawComponentReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ComponentDomainServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private DependencyHistoryService dependencyHistoryService;
+    private ComponentDomainService componentDomainService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        dependencyHistoryService = mock(DependencyHistoryService.class);
+        componentDomainService = new ComponentDomainService(mongoTemplate, mock(ComponentRepository.class),
+                dependencyHistoryService, mock(ArtefactDictionary.class), mock(RawComponentReader.class));
+    }
+
+    @Test
+    void testCollisionWithTheSameChecksumIsUnchanged() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ComponentAndDependency.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(mongoTemplate.findOne(any(Query.class), eq(ComponentAndDependency.class)))
+                .thenReturn(stored("id-1", "checksum-a"));
+
+        assertEquals(UpsertResult.UNCHANGED, componentDomainService.upsertComponent(component("checksum-a")));
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(ComponentAndDependency.class));
+        verifyNoInteractions(dependencyHistoryService);
+    }
+
+    @Test
+    void testCollisionWithAConcurrentFirstUploadIsRetriedAsUpdate() {
+        ComponentAndDependency previous = stored("id-1", "checksum-b");
+        previous.setDependencies(List.of(new Dependency("artefact", "1.0", "compile")));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ComponentAndDependency.class)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(previous);
+        // the concurrent upload inserted other dependencies
+        when(mongoTemplate.findOne(any(Query.class), eq(ComponentAndDependency.class)))
+                .thenReturn(stored("id-1", "checksum-b"));
+
+        ComponentAndDependency component = component("checksum-a");
+        assertEquals(UpsertResult.UPDATED, componentDomainService.upsertComponent(component));
+        assertEquals("id-1", component.getId());
+        verify(dependencyHistoryService).record(any());
+    }
+
+    @Test
+    void testCollisionsAreRetriedABoundedNumberOfTimes() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ComponentAndDependency.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(mongoTemplate.findOne(any(Query.class), eq(ComponentAndDependency.class))).thenReturn(null);
+
+        assertThrows(DuplicateKeyException.class, () -> componentDomainService.upsertComponent(component("checksum-a")));
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(ComponentAndDependency.class));
+    }
+
+    private static ComponentAndDependency component(String checksum) {
+        ComponentAndDependency component = new ComponentAndDependency();
+        component.setComponentId("component");
+        component.setBranch("main");
+        component.setChecksum(checksum);
+        component.setDependencies(List.of(new Dependency("artefact", "2.0", "compile")));
+        component.setCreatedAt(Instant.now());
+        component.setLastUpdatedAt(Instant.now());
+        return component;
+    }
+
+    private static ComponentAndDependency stored(String id, String checksum) {
+        ComponentAndDependency stored = new ComponentAndDependency();
+        stored.setId(id);
+        stored.setChecksum(checksum);
+        stored.setCreatedAt(Instant.EPOCH);
+        return stored;
+    }
+}
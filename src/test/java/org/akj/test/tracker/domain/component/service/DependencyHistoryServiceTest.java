@@ -0,0 +1,118 @@
+package org.akj.test.tracker.domain.component.service;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.model.DependencyHistory;
+import org.akj.test.tracker.domain.component.service.DependencyHistoryService.DependencyChange;
+import org.akj.test.tracker.domain.component.service.DependencyHistoryService.DependencySnapshot;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DependencyHistoryServiceTest {
+
+    private final DependencyHistoryService service = new DependencyHistoryService(mock(MongoTemplate.class), 3);
+
+    @Test
+    void testFirstEntryAndEveryIntervalIsCheckpoint() {
+        List<Dependency> previous = List.of(dep("a", "1.0"));
+        List<Dependency> current = List.of(dep("a", "1.1"));
+
+        assertTrue(service.toEntry(change(null, current), 1).isCheckpoint());
+        assertFalse(service.toEntry(change(previous, current), 2).isCheckpoint());
+        assertFalse(service.toEntry(change(previous, current), 3).isCheckpoint());
+        assertTrue(service.toEntry(change(previous, current), 4).isCheckpoint());
+        // unknown previous state always needs the full set
+        assertTrue(service.toEntry(change(null, current), 5).isCheckpoint());
+    }
+
+    @Test
+    void testDeltaOnlyHoldsDifferences() {
+        List<Dependency> previous = List.of(dep("a", "1.0"), dep("b", "1.0"), dep("c", "1.0"));
+        List<Dependency> current = List.of(dep("a", "1.0"), dep("b", "2.0"), dep("d", "1.0"));
+
+        DependencyHistory entry = service.toEntry(change(previous, current), 2);
+
+        assertNull(entry.getDependencies());
+        assertEquals(List.of(dep("d", "1.0")), entry.getAdded());
+        assertEquals(List.of(dep("b", "2.0")), entry.getChanged());
+        assertEquals(List.of(dep("c", "1.0")), entry.getRemoved());
+    }
+
+    @Test
+    void testReplayRebuildsStateFromCheckpointAndDeltas() {
+        List<Dependency> v1 = List.of(dep("a", "1.0"), dep("b", "1.0"));
+        List<Dependency> v2 = List.of(dep("a", "1.1"), dep("b", "1.0"), dep("c", "1.0"));
+        List<Dependency> v3 = List.of(dep("a", "1.1"), dep("c", "1.0"));
+
+        DependencyHistory checkpoint = service.toEntry(change(null, v1), 1);
+        DependencyHistory delta2 = service.toEntry(change(v1, v2), 2);
+        DependencyHistory delta3 = service.toEntry(change(v2, v3), 3);
+
+        DependencySnapshot atV2 = DependencyHistoryService.replay(checkpoint, List.of(delta2));
+        DependencySnapshot atV3 = DependencyHistoryService.replay(checkpoint, List.of(delta2, delta3));
+
+        assertEquals(v2, atV2.dependencies());
+        assertEquals(v3, atV3.dependencies());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSequenceTakenByConcurrentWriterIsRetriedAsCheckpoint() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulkOps = mock(BulkOperations.class);
+        DependencyHistoryService historyService = new DependencyHistoryService(mongoTemplate, 20);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(DependencyHistoryService.COLLECTION_NAME), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("_id", "ref").append("sequence", 4L)), new Document()),
+                        new AggregationResults<>(List.of(new Document("_id", "ref").append("sequence", 5L)), new Document()));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DependencyHistory.class)).thenReturn(bulkOps);
+        List<List<DependencyHistory>> inserted = new ArrayList<>();
+        when(bulkOps.insert(anyList())).thenAnswer(invocation -> {
+            inserted.add(List.copyOf(invocation.<List<DependencyHistory>>getArgument(0)));
+            return bulkOps;
+        });
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0);
+        when(bulkOps.execute())
+                .thenThrow(new BulkOperationException("duplicate", new MongoBulkWriteException(
+                        BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                        new ServerAddress(), Set.of())))
+                .thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()));
+
+        historyService.record(change(List.of(dep("a", "1.0")), List.of(dep("a", "1.1"))));
+
+        assertEquals(2, inserted.size());
+        assertEquals(5, inserted.get(0).get(0).getSequence());
+        assertFalse(inserted.get(0).get(0).isCheckpoint());
+        // the delta no longer follows the entry the other writer recorded
+        assertEquals(6, inserted.get(1).get(0).getSequence());
+        assertTrue(inserted.get(1).get(0).isCheckpoint());
+    }
+
+    private static DependencyChange change(List<Dependency> previous, List<Dependency> current) {
+        return new DependencyChange("ref", "component", "main", "old", previous, "new", current, Instant.now());
+    }
+
+    private static Dependency dep(String artefact, String version) {
+        return new Dependency(artefact, version, "maven");
+    }
+}
@@ -0,0 +1,35 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtefactPrefixIndexTest {
+
+    @Test
+    void testMatchesEveryRegisteredPrefixOfTheArtefact() {
+        ArtefactPrefixIndex<String> index = ArtefactPrefixIndex.of(
+                Arrays.asList("org.springframework", "org.springframework.boot:spring-boot", "com.fasterxml", null),
+                prefix -> prefix);
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("org.springframework", "org.springframework.boot:spring-boot"),
+                index.matches("org.springframework.boot:spring-boot-starter-web"));
+        assertEquals(List.of("org.springframework"), index.matches("org.springframework"));
+        assertTrue(index.matches("org.spring").isEmpty());
+        assertTrue(index.matches("io.micrometer:micrometer-core").isEmpty());
+        assertTrue(index.matches(null).isEmpty());
+    }
+
+    @Test
+    void testSharedPrefixKeepsAllValues() {
+        ArtefactPrefixIndex<Integer> index = ArtefactPrefixIndex.of(List.of(1, 2),
+                value -> "react");
+
+        assertEquals(List.of(1, 2), index.matches("react-dom"));
+        assertTrue(ArtefactPrefixIndex.of(List.<String>of(), value -> value).isEmpty());
+    }
+}
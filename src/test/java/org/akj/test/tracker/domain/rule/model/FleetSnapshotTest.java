@@ -0,0 +1,94 @@
+package org.akj.test.tracker.domain.rule.model;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.common.model.RuntimeType;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.component.model.ComponentMetadata;
+import org.akj.test.tracker.domain.component.model.RuntimeInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetSnapshotTest {
+
+    private final FleetSnapshot fleet = new FleetSnapshot.Builder()
+            .add(component("c1", "eim-1", ProgramLanguage.JAVA, "11.0.2",
+                    new Dependency("org.springframework.boot:spring-boot-starter-web", "2.7.0", "compile"),
+                    new Dependency("org.springframework.boot:spring-boot-starter-test", "2.7.0", "test"),
+                    new Dependency("com.fasterxml.jackson.core:jackson-databind", "2.13.0", "compile")))
+            .add(component("c2", "eim-1", ProgramLanguage.JAVA, "17.0.2",
+                    new Dependency("org.springframework.boot:spring-boot-starter-web", "3.1.0", "compile")))
+            .add(component("c3", null, ProgramLanguage.JAVA, null,
+                    new Dependency("org.springframework.boot:spring-boot-starter-web", "2.6.0", "compile")))
+            .add(component("c4", "eim-2", ProgramLanguage.PYTHON, "3.8.0",
+                    new Dependency("org.springframework.boot:spring-boot-starter-web", "2.7.0", "compile")))
+            .build();
+
+    @Test
+    void testDependencyRuleFlagsComponentsOfItsLanguageWithMatchingArtefacts() {
+        FleetSnapshot.Simulation simulation = fleet.simulate(rule(null,
+                new DependencyTarget("org.springframework.boot", "3.0.0", VersionOperator.GREATER_EQUAL)),
+                ProgramLanguage.JAVA, 10);
+
+        assertEquals(3, simulation.evaluated());
+        assertEquals(2, simulation.violating());
+        assertEquals(3, simulation.dependencyViolations());
+        assertEquals(0, simulation.runtimeViolations());
+        assertEquals(Map.of("JAVA", 2), simulation.byLanguage());
+        assertEquals(Map.of("eim-1", 1, "unknown", 1), simulation.byEim());
+        FleetSnapshot.Sample sample = simulation.samples().get(0);
+        assertEquals("c1", sample.id());
+        assertEquals(2, sample.dependencyViolations());
+        assertEquals(List.of("org.springframework.boot:spring-boot-starter-web:2.7.0",
+                "org.springframework.boot:spring-boot-starter-test:2.7.0"), sample.dependencies());
+    }
+
+    @Test
+    void testRuntimeRuleFlagsMissingAndOutdatedRuntimes() {
+        FleetSnapshot.Simulation simulation = fleet.simulate(rule(
+                new RuntimeTarget(RuntimeType.JDK, "17.0.0", VersionOperator.GREATER_EQUAL), null),
+                ProgramLanguage.JAVA, 1);
+
+        assertEquals(2, simulation.violating());
+        assertEquals(2, simulation.runtimeViolations());
+        // samples are capped, counts are not
+        assertEquals(1, simulation.samples().size());
+        assertEquals("11.0.2", simulation.samples().get(0).runtimeVersion());
+    }
+
+    @Test
+    void testEmptyFleet() {
+        FleetSnapshot.Simulation simulation = FleetSnapshot.EMPTY.simulate(rule(null,
+                new DependencyTarget("org.springframework.boot", "3.0.0", VersionOperator.GREATER_EQUAL)),
+                ProgramLanguage.JAVA, 10);
+
+        assertEquals(0, simulation.evaluated());
+        assertTrue(simulation.samples().isEmpty());
+    }
+
+    private static RuleSetSnapshot.CompiledRule rule(RuntimeTarget runtimeTarget, DependencyTarget dependencyTarget) {
+        return RuleSetSnapshot.CompiledRule.of(EverGreenRule.builder()
+                .name("simulated")
+                .status(RuleStatus.DRAFT)
+                .ruleDefinition(RuleDefinition.builder()
+                        .language(ProgramLanguage.JAVA)
+                        .target(new Target(runtimeTarget, dependencyTarget))
+                        .build())
+                .build());
+    }
+
+    private static ComponentAndDependency component(String id, String eimId, ProgramLanguage language,
+                                                    String runtimeVersion, Dependency... dependencies) {
+        return ComponentAndDependency.builder()
+                .id(id)
+                .metadata(ComponentMetadata.builder().name("component-" + id).eimId(eimId).build())
+                .language(language)
+                .runtimeInfo(runtimeVersion == null ? null : new RuntimeInfo(RuntimeType.JDK, runtimeVersion))
+                .dependencies(List.of(dependencies))
+                .build();
+    }
+}
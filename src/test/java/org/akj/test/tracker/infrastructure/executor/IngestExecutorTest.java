@@ -0,0 +1,104 @@
+package org.akj.test.tracker.infrastructure.executor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IngestExecutor ingestExecutor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ingestExecutor = new IngestExecutor(meterRegistry, 1, 1, 5, 7, false);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ingestExecutor.destroy();
+    }
+
+    @Test
+    void rejectsWithRetryAfterWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        ingestExecutor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // worker is busy, this one waits in the queue
+        ingestExecutor.execute(this::awaitRelease);
+
+        IngestRejectedException ex = assertThrows(IngestRejectedException.class,
+                () -> ingestExecutor.execute(this::awaitRelease));
+
+        assertFalse(ex.isShuttingDown());
+        assertEquals(7, ex.getRetryAfterSeconds());
+        assertEquals(1, ingestExecutor.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("tracker.ingest.executor.rejected").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void drainsQueuedUploadsOnShutdown() {
+        AtomicInteger processed = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            ingestExecutor.execute(processed::incrementAndGet);
+        }
+
+        ingestExecutor.destroy();
+
+        assertEquals(2, processed.get());
+        assertEquals(2, meterRegistry.get("tracker.ingest.executor.processing").timer().count());
+        IngestRejectedException ex = assertThrows(IngestRejectedException.class,
+                () -> ingestExecutor.execute(processed::incrementAndGet));
+        assertTrue(ex.isShuttingDown());
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadsBoundUploadsInFlight() throws InterruptedException {
+        IngestExecutor virtualExecutor = new IngestExecutor(meterRegistry, 1, 1, 5, 7, true);
+        try {
+            CountDownLatch started = new CountDownLatch(2);
+            for (int i = 0; i < 2; i++) {
+                virtualExecutor.execute(() -> {
+                    started.countDown();
+                    awaitRelease();
+                });
+            }
+            // nothing queues, both uploads run at once
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(2, virtualExecutor.getActiveCount());
+            assertEquals(0, virtualExecutor.getQueueDepth());
+
+            IngestRejectedException ex = assertThrows(IngestRejectedException.class,
+                    () -> virtualExecutor.execute(this::awaitRelease));
+            assertFalse(ex.isShuttingDown());
+        } finally {
+            release.countDown();
+            virtualExecutor.destroy();
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
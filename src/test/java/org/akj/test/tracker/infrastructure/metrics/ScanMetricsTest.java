@@ -0,0 +1,84 @@
+package org.akj.test.tracker.infrastructure.metrics;
+
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ScanMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScanMetrics scanMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        scanMetrics = new ScanMetrics(meterRegistry, 2);
+    }
+
+    @Test
+    void testCountsOnlyCommandsOfTheScanningThread() {
+        CommandStartedEvent command = mock(CommandStartedEvent.class);
+        ScanMetrics.Batch batch = scanMetrics.batch("batch-1");
+
+        try (ScanMetrics.RoundTrips roundTrips = batch.countRoundTrips(4)) {
+            scanMetrics.commandStarted(command);
+            scanMetrics.commandStarted(command);
+            // issued by another thread, e.g. an upload served while the chunk is scanned
+            CompletableFuture.runAsync(() -> scanMetrics.commandStarted(command)).join();
+            assertEquals(2, roundTrips.getCount());
+        }
+        // not scanning anymore
+        scanMetrics.commandStarted(command);
+
+        assertEquals(2.0, meterRegistry.get("tracker.scan.mongo.round-trips").tag("batchId", "batch-1").counter().count());
+        assertEquals(0.5, meterRegistry.get("tracker.scan.mongo.round-trips.per-component").tag("batchId", "batch-1")
+                .summary().mean());
+    }
+
+    @Test
+    void testOnlyTheMostRecentFinishedBatchesAreKept() {
+        scanMetrics.batch("on-change").violationOpened();
+        for (int i = 1; i <= 3; i++) {
+            scanMetrics.batch("batch-" + i).recordRun(Duration.ofSeconds(1), "completed");
+        }
+        // still running, however many batches finished after it started
+        scanMetrics.batch("batch-4").violationOpened();
+        scanMetrics.batch("batch-5").recordRun(Duration.ofSeconds(1), "completed");
+
+        assertTrue(meters("batch-1").isEmpty());
+        assertTrue(meters("batch-2").isEmpty());
+        assertFalse(meters("batch-3").isEmpty());
+        assertFalse(meters("batch-4").isEmpty());
+        assertFalse(meters("batch-5").isEmpty());
+        assertEquals(1.0, meterRegistry.get("tracker.scan.violations").tags("batchId", "on-change", "transition", "opened")
+                .counter().count());
+    }
+
+    @Test
+    void testRemovedBatchDoesNotRegisterMeters() {
+        ScanMetrics.Batch evicted = scanMetrics.batch("batch-1");
+        evicted.recordRun(Duration.ofSeconds(1), "completed");
+        scanMetrics.batch("batch-2").recordRun(Duration.ofSeconds(1), "completed");
+        scanMetrics.batch("batch-3").recordRun(Duration.ofSeconds(1), "completed");
+
+        // a chunk still holding the removed batch
+        evicted.recordRule("rule-1", 1_000);
+
+        assertTrue(meters("batch-1").isEmpty());
+    }
+
+    private List<Meter> meters(String batchId) {
+        return meterRegistry.getMeters().stream()
+                .filter(meter -> batchId.equals(meter.getId().getTag("batchId")))
+                .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package org.akj.test.tracker.infrastructure.storage;
+
+import com.mongodb.client.result.DeleteResult;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.domain.rule.model.RuleViolation;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UniqueIndexMigrationTest {
+
+    private MongoTemplate mongoTemplate;
+    private IndexOperations componentIndexOps;
+    private IndexOperations violationIndexOps;
+    private UniqueIndexMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        componentIndexOps = mock(IndexOperations.class);
+        violationIndexOps = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(ComponentAndDependency.class)).thenReturn(componentIndexOps);
+        when(mongoTemplate.indexOps(RuleViolation.class)).thenReturn(violationIndexOps);
+        when(mongoTemplate.getCollectionName(ComponentAndDependency.class)).thenReturn("component_dependency");
+        when(mongoTemplate.getCollectionName(RuleViolation.class)).thenReturn("rule_violations");
+        when(mongoTemplate.aggregate(any(Aggregation.class), anyString(), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        when(mongoTemplate.remove(any(Query.class), anyString())).thenReturn(DeleteResult.acknowledged(1));
+        migration = new UniqueIndexMigration(mongoTemplate);
+    }
+
+    @Test
+    void testKeepsTheNewestDocumentOfEveryDuplicatedKey() {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("component_dependency"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(new Document("ids", List.of("newest", "older", "oldest"))),
+                        new Document()), new AggregationResults<>(List.of(), new Document()));
+
+        migration.afterSingletonsInstantiated();
+
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(removed.capture(), eq("component_dependency"));
+        assertEquals(new Document("_id", new Document("$in", List.of("older", "oldest"))),
+                removed.getValue().getQueryObject());
+        ArgumentCaptor<Index> index = ArgumentCaptor.forClass(Index.class);
+        verify(componentIndexOps).ensureIndex(index.capture());
+        assertEquals("componentId_branch", index.getValue().getIndexOptions().get("name"));
+        assertEquals(true, index.getValue().getIndexOptions().get("unique"));
+    }
+
+    @Test
+    void testDuplicatesWrittenDuringTheBuildAreRemovedAgain() {
+        when(violationIndexOps.ensureIndex(any(Index.class)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn("componentId_ruleId_unique");
+
+        migration.afterSingletonsInstantiated();
+
+        verify(violationIndexOps, times(2)).ensureIndex(any(Index.class));
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq("rule_violations"), eq(Document.class));
+    }
+
+    @Test
+    void testStartupGoesOnWhenDuplicatesKeepBeingWritten() {
+        when(componentIndexOps.ensureIndex(any(Index.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertDoesNotThrow(() -> migration.afterSingletonsInstantiated());
+
+        verify(componentIndexOps, times(UniqueIndexMigration.MAX_ATTEMPTS)).ensureIndex(any(Index.class));
+        // the other collection is still migrated
+        verify(violationIndexOps).ensureIndex(any(Index.class));
+    }
+
+    @Test
+    void testReplacesTheNonUniqueViolationIndex() {
+        when(violationIndexOps.getIndexInfo()).thenReturn(List.of(
+                new IndexInfo(List.of(), "componentId_ruleId", false, false, null)));
+
+        migration.afterSingletonsInstantiated();
+
+        verify(violationIndexOps).dropIndex("componentId_ruleId");
+        verify(componentIndexOps, never()).dropIndex(anyString());
+    }
+}
@@ -0,0 +1,72 @@
+package org.akj.test.tracker.infrastructure.storage.component.cold;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PackedDependencyCodecTest {
+
+    private PackedDependencyCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        ArtefactDictionary artefactDictionary = mock(ArtefactDictionary.class);
+        when(artefactDictionary.idOf(anyString()))
+                .thenAnswer(invocation -> Integer.parseInt(invocation.<String>getArgument(0).substring("artefact-".length())));
+        when(artefactDictionary.artefactOf(anyInt())).thenAnswer(invocation -> "artefact-" + invocation.getArgument(0));
+        codec = new PackedDependencyCodec(artefactDictionary);
+    }
+
+    @Test
+    void testPackUnpackRoundTrip() {
+        List<Dependency> dependencies = List.of(
+                new Dependency("artefact-0", "1.0.0", "maven"),
+                new Dependency("artefact-300", "2.0.0-RC1", null),
+                new Dependency(null, null, "npm"),
+                new Dependency("artefact-70000", "über-1.0", "maven"));
+
+        assertEquals(dependencies, codec.unpack(codec.pack(dependencies)));
+        assertEquals(List.of(), codec.unpack(codec.pack(List.of())));
+    }
+
+    @Test
+    void testPackedFormIsCompressed() {
+        List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            dependencies.add(new Dependency("artefact-" + i, "3.4.5", "maven"));
+        }
+
+        byte[] packed = codec.pack(dependencies);
+
+        // ids instead of names plus LZ4 on the repeated version/type strings
+        assertTrue(packed.length < dependencies.size() * 8, "packed size: " + packed.length);
+        assertEquals(dependencies, codec.unpack(packed));
+    }
+
+    @Test
+    void testCallbackUnpacksColdComponents() {
+        List<Dependency> dependencies = List.of(new Dependency("artefact-1", "1.0.0", "maven"));
+        ComponentAndDependency cold = ComponentAndDependency.builder()
+                .dependencies(null)
+                .packedDependencies(codec.pack(dependencies))
+                .dependencyCount(1)
+                .build();
+
+        ComponentAndDependency read = new PackedDependenciesCallback(codec).onAfterConvert(cold, null, "component_dependency");
+
+        assertEquals(dependencies, read.getDependencies());
+        assertNull(read.getPackedDependencies());
+        assertNull(read.getDependencyCount());
+    }
+}
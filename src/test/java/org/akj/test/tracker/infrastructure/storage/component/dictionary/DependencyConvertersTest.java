@@ -0,0 +1,84 @@
+package org.akj.test.tracker.infrastructure.storage.component.dictionary;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DependencyConvertersTest {
+
+    private ArtefactDictionary artefactDictionary;
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        artefactDictionary = mock(ArtefactDictionary.class);
+        when(artefactDictionary.idOf("org.springframework.boot:spring-boot-starter-web")).thenReturn(7);
+        when(artefactDictionary.artefactOf(7)).thenReturn("org.springframework.boot:spring-boot-starter-web");
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of(
+                new DependencyWritingConverter(artefactDictionary),
+                new DependencyReadingConverter(artefactDictionary)));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void testDependenciesAreStoredByArtefactIdAndReadBackByName() {
+        Dependency dependency = new Dependency("org.springframework.boot:spring-boot-starter-web", "3.4.5", "maven");
+        ComponentAndDependency component = ComponentAndDependency.builder()
+                .componentId("component")
+                .dependencies(List.of(dependency))
+                .build();
+
+        Document document = new Document();
+        converter.write(component, document);
+
+        Document stored = (Document) document.getList("dependencies", Object.class).get(0);
+        assertEquals(7, stored.getInteger("artefactId"));
+        assertFalse(stored.containsKey("artefact"));
+
+        ComponentAndDependency read = converter.read(ComponentAndDependency.class, document);
+        assertEquals(List.of(dependency), read.getDependencies());
+    }
+
+    @Test
+    void testLegacyDocumentsWithArtefactNamesAreStillReadable() {
+        Document document = new Document("dependencies", List.of(
+                new Document("artefact", "legacy:artefact").append("version", "1.0").append("type", "maven")));
+
+        ComponentAndDependency read = converter.read(ComponentAndDependency.class, document);
+
+        assertEquals(List.of(new Dependency("legacy:artefact", "1.0", "maven")), read.getDependencies());
+        verifyNoInteractions(artefactDictionary);
+    }
+
+    @Test
+    void testUpdatesStoreArtefactIds() {
+        Dependency dependency = new Dependency("org.springframework.boot:spring-boot-starter-web", "3.4.5", "maven");
+        Update update = new Update().push("stagedDependencies").each(dependency);
+
+        Document mapped = new UpdateMapper(converter).getMappedObject(update.getUpdateObject(),
+                converter.getMappingContext().getPersistentEntity(ComponentAndDependency.class));
+
+        Document each = mapped.get("$push", Document.class).get("stagedDependencies", Document.class);
+        Document stored = (Document) each.getList("$each", Object.class).get(0);
+        assertEquals(7, stored.getInteger("artefactId"));
+    }
+}
@@ -0,0 +1,98 @@
+package org.akj.test.tracker.infrastructure.storage.component.scan;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.akj.test.tracker.domain.common.model.ProgramLanguage;
+import org.akj.test.tracker.domain.common.model.RuntimeType;
+import org.akj.test.tracker.domain.component.model.ComponentAndDependency;
+import org.akj.test.tracker.infrastructure.storage.component.cold.PackedDependencyCodec;
+import org.akj.test.tracker.infrastructure.storage.component.dictionary.ArtefactDictionary;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RawComponentReaderTest {
+
+    private PackedDependencyCodec codec;
+    private RawComponentReader reader;
+
+    @BeforeEach
+    void setUp() {
+        ArtefactDictionary artefactDictionary = mock(ArtefactDictionary.class);
+        when(artefactDictionary.idOf(anyString()))
+                .thenAnswer(invocation -> Integer.parseInt(invocation.<String>getArgument(0).substring("artefact-".length())));
+        when(artefactDictionary.artefactOf(anyInt())).thenAnswer(invocation -> "artefact-" + invocation.getArgument(0));
+        codec = new PackedDependencyCodec(artefactDictionary);
+        reader = new RawComponentReader(artefactDictionary, codec);
+    }
+
+    @Test
+    void testReadsScanFieldsAndSkipsTheRest() {
+        ObjectId id = new ObjectId();
+        Document document = new Document("_id", id)
+                .append("componentId", "org.example:service")
+                .append("metadata", new Document("name", "service").append("eimId", "eim-1")
+                        .append("sourceCodeUrl", "https://git.example.com/service"))
+                .append("runtimeInfo", new Document("type", "JDK").append("version", "17.0.2"))
+                .append("language", "JAVA")
+                .append("dependencies", List.of(
+                        new Document("artefactId", 12).append("version", "3.4.5").append("type", "compile"),
+                        new Document("artefact", "legacy-artefact").append("version", "1.0.0")))
+                .append("createdAt", new java.util.Date());
+
+        ComponentAndDependency component = reader.read(raw(document));
+
+        assertEquals(id.toHexString(), component.getId());
+        assertEquals(ProgramLanguage.JAVA, component.getLanguage());
+        assertEquals(RuntimeType.JDK, component.getRuntimeInfo().getType());
+        assertEquals("17.0.2", component.getRuntimeInfo().getVersion());
+        assertEquals("service", component.getMetadata().getName());
+        assertEquals("eim-1", component.getMetadata().getEimId());
+        assertNull(component.getMetadata().getSourceCodeUrl());
+        assertNull(component.getComponentId());
+        assertEquals(List.of(new Dependency("artefact-12", "3.4.5", null), new Dependency("legacy-artefact", "1.0.0", null)),
+                component.getDependencies());
+    }
+
+    @Test
+    void testUnpacksColdComponentDependencies() {
+        byte[] packed = codec.pack(List.of(new Dependency("artefact-7", "2.0.0", "compile")));
+        Document document = new Document("_id", new ObjectId())
+                .append("language", "JAVA")
+                .append("runtimeInfo", null)
+                .append("packedDependencies", new Binary(packed));
+
+        ComponentAndDependency component = reader.read(raw(document));
+
+        assertNull(component.getRuntimeInfo());
+        assertEquals(List.of(new Dependency("artefact-7", "2.0.0", "compile")), component.getDependencies());
+    }
+
+    @Test
+    void testUnknownEnumValuesAreReadAsNull() {
+        Document document = new Document("_id", new ObjectId())
+                .append("language", "COBOL")
+                .append("runtimeInfo", new Document("type", "BEAM").append("version", "26"));
+
+        ComponentAndDependency component = reader.read(raw(document));
+
+        assertNull(component.getLanguage());
+        assertNull(component.getRuntimeInfo().getType());
+        assertEquals("26", component.getRuntimeInfo().getVersion());
+    }
+
+    private static RawBsonDocument raw(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec());
+    }
+}
@@ -0,0 +1,65 @@
+package org.akj.test.tracker.infrastructure.utils;
+
+import org.akj.test.tracker.domain.common.model.Dependency;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyChecksumTest {
+
+    @Test
+    void sameDependenciesInDifferentOrderHaveSameChecksum() {
+        List<Dependency> dependencies = List.of(
+                new Dependency("org.springframework.boot:spring-boot-starter-web", "3.4.5", "compile"),
+                new Dependency("org.projectlombok:lombok", "1.18.38", "provided"),
+                new Dependency("react", "18.2.0", null));
+
+        String checksum = DependencyChecksum.of(dependencies);
+
+        assertEquals(checksum, DependencyChecksum.of(List.of(dependencies.get(2), dependencies.get(0), dependencies.get(1))));
+        assertEquals("940a8fc1b9af8172", DependencyChecksum.of(List.of(
+                new Dependency("dep1", "1.0.0", null), new Dependency("dep2", "2.0.0", null))));
+    }
+
+    @Test
+    void changedVersionOrTypeChangesChecksum() {
+        String checksum = DependencyChecksum.of(List.of(new Dependency("dep1", "1.0.0", "compile")));
+
+        assertNotEquals(checksum, DependencyChecksum.of(List.of(new Dependency("dep1", "1.0.1", "compile"))));
+        assertNotEquals(checksum, DependencyChecksum.of(List.of(new Dependency("dep1", "1.0.0", "test"))));
+        assertNotEquals(checksum, DependencyChecksum.of(List.of(new Dependency("dep1", "1.0.0", null))));
+        assertNotEquals(checksum, DependencyChecksum.of(List.of(new Dependency("dep1", "1.0.0", ""))));
+    }
+
+    @Test
+    void fieldBoundariesAndDuplicatesAreSignificant() {
+        assertNotEquals(
+                DependencyChecksum.of(List.of(new Dependency("ab", "c", null))),
+                DependencyChecksum.of(List.of(new Dependency("a", "bc", null))));
+
+        Dependency dependency = new Dependency("dep1", "1.0.0", null);
+        assertNotEquals(DependencyChecksum.of(List.of(dependency)), DependencyChecksum.of(List.of(dependency, dependency)));
+    }
+
+    @Test
+    void streamingChecksumMatchesCollectionChecksum() {
+        // longer than the internal buffer and outside the BMP
+        String artefact = "@scope/" + "x".repeat(300) + "😀é";
+        DependencyChecksum streaming = new DependencyChecksum()
+                .add(artefact, "1.0.0", "dev")
+                .add("lodash", "4.17.21", null);
+
+        assertEquals(2, streaming.getCount());
+        assertEquals(DependencyChecksum.of(List.of(new Dependency("lodash", "4.17.21", null),
+                new Dependency(artefact, "1.0.0", "dev"))), streaming.getValue());
+    }
+
+    @Test
+    void emptyDependenciesHaveEmptyChecksum() {
+        assertEquals("", DependencyChecksum.of(List.of()));
+        assertEquals("", DependencyChecksum.of(null));
+        assertEquals("", new DependencyChecksum().getValue());
+    }
+}
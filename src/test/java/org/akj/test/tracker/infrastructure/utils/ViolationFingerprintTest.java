@@ -0,0 +1,59 @@
+package org.akj.test.tracker.infrastructure.utils;
+
+import org.akj.test.tracker.domain.rule.model.DependencyTarget;
+import org.akj.test.tracker.domain.rule.model.DependencyViolation;
+import org.akj.test.tracker.domain.rule.model.RuleViolation;
+import org.akj.test.tracker.domain.rule.model.VersionOperator;
+import org.akj.test.tracker.domain.rule.model.ViolationStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViolationFingerprintTest {
+
+    @Test
+    void timestampsAndDependencyOrderDoNotChangeFingerprint() {
+        RuleViolation violation = violation(ViolationStatus.OPEN, List.of(dependency("a", "1.0.0"), dependency("b", "2.0.0")));
+        String fingerprint = ViolationFingerprint.of(violation);
+
+        RuleViolation rescanned = violation(ViolationStatus.OPEN, List.of(dependency("b", "2.0.0"), dependency("a", "1.0.0")));
+        rescanned.setId("v-1");
+        rescanned.setUpdatedAt(Instant.now().plusSeconds(60));
+        rescanned.setFingerprint(fingerprint);
+
+        assertEquals(fingerprint, ViolationFingerprint.of(rescanned));
+    }
+
+    @Test
+    void statusOrVersionChangesFingerprint() {
+        String fingerprint = ViolationFingerprint.of(violation(ViolationStatus.OPEN, List.of(dependency("a", "1.0.0"))));
+
+        assertNotEquals(fingerprint, ViolationFingerprint.of(violation(ViolationStatus.RESOLVED, List.of(dependency("a", "1.0.0")))));
+        assertNotEquals(fingerprint, ViolationFingerprint.of(violation(ViolationStatus.OPEN, List.of(dependency("a", "1.0.1")))));
+        assertNotEquals(fingerprint, ViolationFingerprint.of(violation(ViolationStatus.OPEN, List.of())));
+        assertNotEquals(fingerprint, ViolationFingerprint.of(violation(ViolationStatus.OPEN, null)));
+    }
+
+    private static RuleViolation violation(ViolationStatus status, List<DependencyViolation> dependencyViolations) {
+        return RuleViolation.builder()
+                .ruleId("rule-1")
+                .componentId("c1")
+                .ruleName("rule 1")
+                .componentName("component 1")
+                .status(status)
+                .hasViolation(true)
+                .dependencyViolations(dependencyViolations)
+                .createdAt(Instant.EPOCH)
+                .updatedAt(Instant.EPOCH)
+                .build();
+    }
+
+    private static DependencyViolation dependency(String artefact, String version) {
+        return new DependencyViolation(
+                new DependencyTarget(artefact, version, VersionOperator.GREATER_EQUAL),
+                new DependencyTarget(artefact, "3.0.0", VersionOperator.GREATER_EQUAL));
+    }
+}